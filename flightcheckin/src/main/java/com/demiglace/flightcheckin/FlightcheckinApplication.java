@@ -2,8 +2,16 @@ package com.demiglace.flightcheckin;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.demiglace.tracing.SpanLoggingConfig;
 
 @SpringBootApplication
+@Import(SpanLoggingConfig.class)
+@EnableCaching
+@EnableScheduling
 public class FlightcheckinApplication {
 
 	public static void main(String[] args) {
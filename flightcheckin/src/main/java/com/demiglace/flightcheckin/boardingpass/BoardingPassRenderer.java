@@ -0,0 +1,176 @@
+package com.demiglace.flightcheckin.boardingpass;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.List;
+import java.util.Locale;
+
+import javax.imageio.ImageIO;
+
+import com.demiglace.integration.dto.Flight;
+import com.demiglace.integration.dto.Passenger;
+import com.demiglace.integration.dto.Reservation;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.BarcodePDF417;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+
+/**
+ * Renders boarding passes. Fonts, barcode encoder, date formats and output buffer are created once and
+ * reused, so an instance must only be used by one thread at a time (BoardingPassServiceImpl pools them).
+ */
+class BoardingPassRenderer {
+	// 8 x 3.25 inch, the usual boarding pass stock
+	private static final Rectangle PAGE = new Rectangle(576, 234);
+	private static final float[] COLUMNS = { 2, 2, 2, 3 };
+	private static final int BARCODE_SCALE = 3;
+
+	private final Font titleFont;
+	private final Font labelFont;
+	private final Font valueFont;
+	private final BarcodePDF417 barcode = new BarcodePDF417();
+	private final SimpleDateFormat dateFormat = new SimpleDateFormat("dd MMM yyyy", Locale.ENGLISH);
+	private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm", Locale.ENGLISH);
+	private final SimpleDateFormat dayOfYearFormat = new SimpleDateFormat("DDD", Locale.ENGLISH);
+	private final ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+
+	BoardingPassRenderer() throws DocumentException, IOException {
+		BaseFont regular = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+		BaseFont bold = BaseFont.createFont(BaseFont.HELVETICA_BOLD, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+		titleFont = new Font(bold, 16);
+		labelFont = new Font(regular, 7);
+		valueFont = new Font(bold, 11);
+		barcode.setOptions(BarcodePDF417.PDF417_FIXED_COLUMNS);
+		barcode.setCodeColumns(8);
+	}
+
+	byte[] renderPdf(List<Reservation> reservations) throws DocumentException {
+		out.reset();
+		Document document = new Document(PAGE, 18, 18, 18, 18);
+		PdfWriter.getInstance(document, out);
+		document.open();
+		for (int i = 0; i < reservations.size(); i++) {
+			if (i > 0) {
+				document.newPage();
+			}
+			document.add(pass(reservations.get(i)));
+		}
+		document.close();
+		return out.toByteArray();
+	}
+
+	byte[] renderBarcodePng(Reservation reservation) throws IOException {
+		barcode.setText(barcodeText(reservation));
+		barcode.paintCode();
+		byte[] bits = barcode.getOutBits();
+		int columns = barcode.getBitColumns();
+		int rows = barcode.getCodeRows();
+		int rowHeight = (int) barcode.getYHeight();
+		int stride = (columns + 7) / 8;
+		int quietZone = 2 * BARCODE_SCALE;
+		BufferedImage image = new BufferedImage(columns * BARCODE_SCALE + 2 * quietZone,
+				rows * rowHeight * BARCODE_SCALE + 2 * quietZone, BufferedImage.TYPE_BYTE_BINARY);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(Color.WHITE);
+		graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+		graphics.setColor(Color.BLACK);
+		for (int row = 0; row < rows; row++) {
+			for (int column = 0; column < columns; column++) {
+				if (((bits[row * stride + column / 8] << (column % 8)) & 0x80) != 0) {
+					graphics.fillRect(quietZone + column * BARCODE_SCALE, quietZone + row * rowHeight * BARCODE_SCALE,
+							BARCODE_SCALE, rowHeight * BARCODE_SCALE);
+				}
+			}
+		}
+		graphics.dispose();
+		out.reset();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+
+	private PdfPTable pass(Reservation reservation) throws DocumentException {
+		Flight flight = reservation.getFlight();
+		Passenger passenger = reservation.getPassenger();
+		PdfPTable table = new PdfPTable(COLUMNS);
+		table.setWidthPercentage(100);
+		table.getDefaultCell().setBorder(Rectangle.NO_BORDER);
+
+		PdfPCell title = new PdfPCell(new Phrase(flight.getOperatingAirlines() + "  BOARDING PASS", titleFont));
+		title.setColspan(4);
+		title.setBorder(Rectangle.BOTTOM);
+		title.setPaddingBottom(8);
+		table.addCell(title);
+
+		field(table, "PASSENGER", passenger.getLastName() + " / " + passenger.getFirstName(), 2);
+		field(table, "FLIGHT", flight.getFlightNumber(), 1);
+		PdfPCell code = new PdfPCell(barcodeImage(reservation), true);
+		code.setRowspan(3);
+		code.setBorder(Rectangle.NO_BORDER);
+		code.setPadding(4);
+		table.addCell(code);
+
+		field(table, "FROM", flight.getDepartureCity(), 1);
+		field(table, "TO", flight.getArrivalCity(), 1);
+		field(table, "DATE", flight.getDateOfDeparture() == null ? "" : dateFormat.format(flight.getDateOfDeparture()), 1);
+
+		field(table, "DEPARTURE", flight.getEstimatedDepartureTime() == null ? ""
+				: timeFormat.format(flight.getEstimatedDepartureTime()), 1);
+		field(table, "BAGS", String.valueOf(reservation.getNumberOfBags()), 1);
+		field(table, "RESERVATION", String.valueOf(reservation.getId()), 1);
+		return table;
+	}
+
+	private void field(PdfPTable table, String label, String value, int colspan) {
+		Phrase phrase = new Phrase(label + "\n", labelFont);
+		phrase.add(new Phrase(value == null ? "" : value, valueFont));
+		PdfPCell cell = new PdfPCell(phrase);
+		cell.setColspan(colspan);
+		cell.setBorder(Rectangle.NO_BORDER);
+		cell.setPaddingTop(8);
+		table.addCell(cell);
+	}
+
+	private Image barcodeImage(Reservation reservation) throws DocumentException {
+		barcode.setText(barcodeText(reservation));
+		return barcode.getImage();
+	}
+
+	// laid out like the mandatory items of an IATA bar coded boarding pass
+	private String barcodeText(Reservation reservation) {
+		Flight flight = reservation.getFlight();
+		Passenger passenger = reservation.getPassenger();
+		StringBuilder text = new StringBuilder(60).append("M1");
+		pad(text, passenger.getLastName() + "/" + passenger.getFirstName(), 20);
+		text.append('E');
+		pad(text, String.valueOf(reservation.getId()), 7);
+		pad(text, flight.getDepartureCity(), 3);
+		pad(text, flight.getArrivalCity(), 3);
+		pad(text, flight.getFlightNumber(), 8);
+		text.append(flight.getDateOfDeparture() == null ? "000" : dayOfYearFormat.format(flight.getDateOfDeparture()));
+		text.append('Y');
+		pad(text, String.valueOf(reservation.getNumberOfBags()), 2);
+		return text.toString().toUpperCase(Locale.ENGLISH);
+	}
+
+	private static void pad(StringBuilder text, String value, int width) {
+		String field = value == null ? "" : value;
+		if (field.length() > width) {
+			field = field.substring(0, width);
+		}
+		text.append(field);
+		for (int i = field.length(); i < width; i++) {
+			text.append(' ');
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.demiglace.flightcheckin.boardingpass;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.demiglace.integration.dto.Reservation;
+
+/**
+ * Renders boarding passes on a bounded pool of workers. When the pool and its queue are full the
+ * returned future fails with a RejectedExecutionException, callers should ask to retry.
+ */
+public interface BoardingPassService {
+
+	CompletableFuture<byte[]> generatePdf(Reservation reservation);
+
+	// PDF417 barcode as png, for kiosks and mobile passes
+	CompletableFuture<byte[]> generateBarcode(Reservation reservation);
+
+	// one pdf with a page per passenger, printed in one go at the desk
+	CompletableFuture<byte[]> generateGroupPdf(List<Reservation> reservations);
+}
@@ -0,0 +1,126 @@
+package com.demiglace.flightcheckin.boardingpass;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.demiglace.integration.dto.Flight;
+import com.demiglace.integration.dto.Passenger;
+import com.demiglace.integration.dto.Reservation;
+
+@Service
+public class BoardingPassServiceImpl implements BoardingPassService {
+	private static final int WARMUP_PASSES = 50;
+
+	@Value("${com.demiglace.flightcheckin.boardingpass.workers}")
+	private int WORKERS;
+
+	@Value("${com.demiglace.flightcheckin.boardingpass.queuecapacity}")
+	private int QUEUE_CAPACITY;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(BoardingPassServiceImpl.class);
+
+	private BlockingQueue<BoardingPassRenderer> renderers;
+	private ThreadPoolExecutor executor;
+
+	// one renderer per worker, warmed up at startup so the first passes of a rush are not the slow ones
+	@PostConstruct
+	public void init() throws Exception {
+		int workers = WORKERS > 0 ? WORKERS : Runtime.getRuntime().availableProcessors();
+		renderers = new ArrayBlockingQueue<>(workers);
+		Reservation sample = sampleReservation();
+		for (int i = 0; i < workers; i++) {
+			BoardingPassRenderer renderer = new BoardingPassRenderer();
+			for (int j = 0; j < WARMUP_PASSES; j++) {
+				renderer.renderPdf(Collections.singletonList(sample));
+				renderer.renderBarcodePng(sample);
+			}
+			renderers.add(renderer);
+		}
+		executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY), new CustomizableThreadFactory("boarding-pass-"));
+		LOGGER.info("boarding pass renderers ready: {} workers, queue of {}", workers, QUEUE_CAPACITY);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	@Override
+	public CompletableFuture<byte[]> generatePdf(Reservation reservation) {
+		return render(renderer -> renderer.renderPdf(Collections.singletonList(reservation)));
+	}
+
+	@Override
+	public CompletableFuture<byte[]> generateBarcode(Reservation reservation) {
+		return render(renderer -> renderer.renderBarcodePng(reservation));
+	}
+
+	@Override
+	public CompletableFuture<byte[]> generateGroupPdf(List<Reservation> reservations) {
+		return render(renderer -> renderer.renderPdf(reservations));
+	}
+
+	// there are as many renderers as workers, so a worker never waits for one
+	private CompletableFuture<byte[]> render(RenderTask task) {
+		try {
+			return CompletableFuture.supplyAsync(() -> renderWithPooledRenderer(task), executor);
+		} catch (RejectedExecutionException e) {
+			CompletableFuture<byte[]> rejected = new CompletableFuture<>();
+			rejected.completeExceptionally(e);
+			return rejected;
+		}
+	}
+
+	private byte[] renderWithPooledRenderer(RenderTask task) {
+		BoardingPassRenderer renderer = renderers.poll();
+		try {
+			return task.render(renderer);
+		} catch (Exception e) {
+			throw new IllegalStateException("could not render boarding pass", e);
+		} finally {
+			renderers.add(renderer);
+		}
+	}
+
+	private interface RenderTask {
+		byte[] render(BoardingPassRenderer renderer) throws Exception;
+	}
+
+	static Reservation sampleReservation() {
+		Passenger passenger = new Passenger();
+		passenger.setFirstName("John");
+		passenger.setLastName("Doe");
+		Flight flight = new Flight();
+		flight.setFlightNumber("AA1");
+		flight.setOperatingAirlines("American Airlines");
+		flight.setDepartureCity("AUS");
+		flight.setArrivalCity("NYC");
+		flight.setDateOfDeparture(new Date());
+		flight.setEstimatedDepartureTime(new Timestamp(System.currentTimeMillis()));
+		Reservation reservation = new Reservation();
+		reservation.setId(1L);
+		reservation.setNumberOfBags(1);
+		reservation.setCheckedIn(true);
+		reservation.setPassenger(passenger);
+		reservation.setFlight(flight);
+		return reservation;
+	}
+}
@@ -0,0 +1,154 @@
+package com.demiglace.flightcheckin.config;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.demiglace.flightcheckin.integration.RetryBudget;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.retry.event.RetryEvent;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Configuration
+public class ResilienceConfig {
+	private static final String FLIGHTRESERVATION = "flightreservation";
+
+	@Value("${com.demiglace.flightcheckin.reservation.circuitbreaker.failureratethreshold}")
+	private float FAILURE_RATE_THRESHOLD;
+
+	@Value("${com.demiglace.flightcheckin.reservation.circuitbreaker.slowcallmillis}")
+	private long SLOW_CALL_MILLIS;
+
+	@Value("${com.demiglace.flightcheckin.reservation.circuitbreaker.windowsize}")
+	private int WINDOW_SIZE;
+
+	@Value("${com.demiglace.flightcheckin.reservation.circuitbreaker.openmillis}")
+	private long OPEN_MILLIS;
+
+	@Value("${com.demiglace.flightcheckin.reservation.bulkhead.maxconcurrentcalls}")
+	private int MAX_CONCURRENT_CALLS;
+
+	@Value("${com.demiglace.flightcheckin.reservation.bulkhead.maxwaitmillis}")
+	private long MAX_WAIT_MILLIS;
+
+	@Value("${com.demiglace.flightcheckin.reservation.retry.maxattempts}")
+	private int MAX_ATTEMPTS;
+
+	@Value("${com.demiglace.flightcheckin.reservation.retry.waitmillis}")
+	private long RETRY_WAIT_MILLIS;
+
+	@Value("${com.demiglace.flightcheckin.reservation.retry.budgetratio}")
+	private double RETRY_BUDGET_RATIO;
+
+	@Value("${com.demiglace.flightcheckin.reservation.retry.budgetmax}")
+	private int RETRY_BUDGET_MAX;
+
+	// io errors, timeouts and the 502, 503 and 504 of a struggling flightreservation, for both the blocking and
+	// the reactive client; any other 5xx is an answer about the request itself, repeating it won't help
+	public static boolean isTransientFailure(Throwable e) {
+		if (e instanceof WebClientResponseException) {
+			return isTransientStatus(((WebClientResponseException) e).getRawStatusCode());
+		}
+		if (e instanceof HttpServerErrorException) {
+			return isTransientStatus(((HttpServerErrorException) e).getRawStatusCode());
+		}
+		return e instanceof ResourceAccessException || e instanceof WebClientRequestException
+				|| e instanceof TimeoutException;
+	}
+
+	private static boolean isTransientStatus(int status) {
+		return status == 502 || status == 503 || status == 504;
+	}
+
+	@Bean
+	public CircuitBreakerRegistry circuitBreakerRegistry() {
+		return CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+				.failureRateThreshold(FAILURE_RATE_THRESHOLD)
+				.slowCallRateThreshold(FAILURE_RATE_THRESHOLD)
+				.slowCallDurationThreshold(Duration.ofMillis(SLOW_CALL_MILLIS))
+				.slidingWindowSize(WINDOW_SIZE)
+				.minimumNumberOfCalls(WINDOW_SIZE / 2)
+				.waitDurationInOpenState(Duration.ofMillis(OPEN_MILLIS))
+				.permittedNumberOfCallsInHalfOpenState(3)
+				.recordException(ResilienceConfig::isTransientFailure)
+				.build());
+	}
+
+	@Bean
+	public CircuitBreaker reservationCircuitBreaker(CircuitBreakerRegistry circuitBreakerRegistry) {
+		return circuitBreakerRegistry.circuitBreaker(FLIGHTRESERVATION);
+	}
+
+	// caps the number of check-in threads that can be stuck waiting on flightreservation
+	@Bean
+	public BulkheadRegistry bulkheadRegistry() {
+		return BulkheadRegistry.of(BulkheadConfig.custom()
+				.maxConcurrentCalls(MAX_CONCURRENT_CALLS)
+				.maxWaitDuration(Duration.ofMillis(MAX_WAIT_MILLIS))
+				.build());
+	}
+
+	@Bean
+	public Bulkhead reservationBulkhead(BulkheadRegistry bulkheadRegistry) {
+		return bulkheadRegistry.bulkhead(FLIGHTRESERVATION);
+	}
+
+	@Bean
+	public RetryBudget reservationRetryBudget() {
+		return new RetryBudget(RETRY_BUDGET_RATIO, RETRY_BUDGET_MAX);
+	}
+
+	@Bean
+	public RetryRegistry retryRegistry(RetryBudget reservationRetryBudget) {
+		return RetryRegistry.of(RetryConfig.custom()
+				.maxAttempts(MAX_ATTEMPTS)
+				.intervalFunction(IntervalFunction.ofExponentialRandomBackoff(RETRY_WAIT_MILLIS, 2.0, 0.5))
+				// only transient failures are retried, and only while the budget has tokens left
+				.retryOnException(e -> isTransientFailure(e) && reservationRetryBudget.tryAcquireRetry())
+				.build());
+	}
+
+	@Bean
+	public Retry reservationRetry(RetryRegistry retryRegistry, RetryBudget reservationRetryBudget) {
+		Retry retry = retryRegistry.retry(FLIGHTRESERVATION);
+		// the predicate runs before the retry knows whether attempts are left, an error event means none were
+		// (filtered here, the typed onError consumer is keyed differently by the resilience4j-core on the classpath)
+		retry.getEventPublisher().onEvent(event -> {
+			if (event.getEventType() == RetryEvent.Type.ERROR) {
+				reservationRetryBudget.refundRetry();
+			}
+		});
+		return retry;
+	}
+
+	// exposed under /actuator/metrics/resilience4j.*
+	@Bean
+	public MeterBinder resilienceMetrics(CircuitBreakerRegistry circuitBreakerRegistry,
+			BulkheadRegistry bulkheadRegistry, RetryRegistry retryRegistry) {
+		return registry -> {
+			TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(registry);
+			TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(registry);
+			TaggedRetryMetrics.ofRetryRegistry(retryRegistry).bindTo(registry);
+		};
+	}
+}
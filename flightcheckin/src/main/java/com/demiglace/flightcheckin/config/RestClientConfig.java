@@ -0,0 +1,186 @@
+package com.demiglace.flightcheckin.config;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.demiglace.flightcheckin.integration.ReservationInstance;
+import com.demiglace.flightcheckin.integration.ReservationInstanceBalancer;
+import com.demiglace.flightcheckin.integration.SingleFlight;
+import com.demiglace.integration.dto.Reservation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+public class RestClientConfig {
+
+	@Value("${com.demiglace.flightcheckin.reservation.pool.maxtotal}")
+	private int MAX_TOTAL;
+
+	@Value("${com.demiglace.flightcheckin.reservation.pool.maxperroute}")
+	private int MAX_PER_ROUTE;
+
+	@Value("${com.demiglace.flightcheckin.reservation.connecttimeoutmillis}")
+	private int CONNECT_TIMEOUT_MILLIS;
+
+	@Value("${com.demiglace.flightcheckin.reservation.readtimeoutmillis}")
+	private int READ_TIMEOUT_MILLIS;
+
+	@Value("${com.demiglace.flightcheckin.reservation.keepalivemillis}")
+	private long KEEP_ALIVE_MILLIS;
+
+	@Value("${com.demiglace.flightcheckin.reservation.wireformat}")
+	private String WIRE_FORMAT;
+
+	// json, or cbor which flightreservation also negotiates on /reservations
+	@Bean
+	public MediaType reservationMediaType() {
+		return "cbor".equalsIgnoreCase(WIRE_FORMAT) ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON;
+	}
+
+	// one pool of keep-alive connections shared by every call to flightreservation
+	@Bean(destroyMethod = "close")
+	public PoolingHttpClientConnectionManager reservationConnectionManager() {
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+				KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS);
+		connectionManager.setMaxTotal(MAX_TOTAL);
+		connectionManager.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+		connectionManager.setValidateAfterInactivity(2000);
+		return connectionManager;
+	}
+
+	@Bean(destroyMethod = "close")
+	public CloseableHttpClient reservationHttpClient(PoolingHttpClientConnectionManager reservationConnectionManager) {
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(CONNECT_TIMEOUT_MILLIS)
+				.setConnectionRequestTimeout(CONNECT_TIMEOUT_MILLIS)
+				.setSocketTimeout(READ_TIMEOUT_MILLIS)
+				.build();
+		return HttpClients.custom()
+				.setConnectionManager(reservationConnectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy((response, context) -> {
+					long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+					return keepAlive > 0 ? Math.min(keepAlive, KEEP_ALIVE_MILLIS) : KEEP_ALIVE_MILLIS;
+				})
+				.evictExpiredConnections()
+				.evictIdleConnections(KEEP_ALIVE_MILLIS, TimeUnit.MILLISECONDS)
+				.build();
+	}
+
+	// built once, so the message converters are only set up at startup
+	@Bean
+	public RestTemplate reservationRestTemplate(RestTemplateBuilder builder, CloseableHttpClient reservationHttpClient) {
+		builder = builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(reservationHttpClient));
+		if (!MediaType.APPLICATION_CBOR.equals(reservationMediaType())) {
+			return builder.build();
+		}
+		// ahead of the json converter so request bodies go out as cbor, and cbor is all we accept back
+		RestTemplate restTemplate = builder.additionalInterceptors((request, body, execution) -> {
+			request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_CBOR));
+			return execution.execute(request, body);
+		}).build();
+		restTemplate.getMessageConverters().add(0, new MappingJackson2CborHttpMessageConverter(cborMapper()));
+		return restTemplate;
+	}
+
+	// non-blocking client on reactor-netty, same pool size and timeouts as the blocking one
+	@Bean
+	@ConditionalOnProperty(name = "com.demiglace.flightcheckin.reservation.client", havingValue = "reactive")
+	public WebClient reservationWebClient(WebClient.Builder builder) {
+		ConnectionProvider connectionProvider = ConnectionProvider.builder("flightreservation")
+				.maxConnections(MAX_TOTAL)
+				.pendingAcquireTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MILLIS))
+				.maxIdleTime(Duration.ofMillis(KEEP_ALIVE_MILLIS))
+				.build();
+		HttpClient httpClient = HttpClient.create(connectionProvider)
+				.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNECT_TIMEOUT_MILLIS)
+				.responseTimeout(Duration.ofMillis(READ_TIMEOUT_MILLIS));
+		// spring's cbor encoder can't write bodies yet, WebClientReservationRestClient encodes them itself
+		return builder.clientConnector(new ReactorClientHttpConnector(httpClient))
+				.codecs(codecs -> codecs.customCodecs()
+						.register(new Jackson2CborDecoder(cborMapper(), MediaType.APPLICATION_CBOR)))
+				.defaultHeader(HttpHeaders.ACCEPT, reservationMediaType().toString())
+				.build();
+	}
+
+	// exposed under /actuator/metrics/http.client.pool.*
+	@Bean
+	public MeterBinder reservationConnectionPoolMetrics(PoolingHttpClientConnectionManager reservationConnectionManager) {
+		return registry -> {
+			Gauge.builder("http.client.pool.leased", reservationConnectionManager,
+					cm -> cm.getTotalStats().getLeased())
+					.tag("pool", "flightreservation").register(registry);
+			Gauge.builder("http.client.pool.available", reservationConnectionManager,
+					cm -> cm.getTotalStats().getAvailable())
+					.tag("pool", "flightreservation").register(registry);
+			Gauge.builder("http.client.pool.pending", reservationConnectionManager,
+					cm -> cm.getTotalStats().getPending())
+					.tag("pool", "flightreservation").register(registry);
+			Gauge.builder("http.client.pool.max", reservationConnectionManager,
+					cm -> cm.getTotalStats().getMax())
+					.tag("pool", "flightreservation").register(registry);
+		};
+	}
+
+	// concurrent lookups of the same reservation id share one call to flightreservation
+	@Bean
+	public SingleFlight<Long, Reservation> reservationLookups() {
+		return new SingleFlight<>();
+	}
+
+	// exposed under /actuator/metrics/reservation.lookups.*
+	@Bean
+	public MeterBinder reservationLookupMetrics(SingleFlight<Long, Reservation> reservationLookups) {
+		return registry -> {
+			FunctionCounter.builder("reservation.lookups.calls", reservationLookups, SingleFlight::getCallCount)
+					.register(registry);
+			FunctionCounter.builder("reservation.lookups.coalesced", reservationLookups,
+					SingleFlight::getCoalescedCount).register(registry);
+		};
+	}
+
+	// exposed under /actuator/metrics/reservation.instances.*
+	@Bean
+	public MeterBinder reservationInstanceMetrics(ReservationInstanceBalancer balancer) {
+		return registry -> {
+			Gauge.builder("reservation.instances.healthy", balancer,
+					b -> b.getInstances().stream().filter(ReservationInstance::isHealthy).count())
+					.register(registry);
+			Gauge.builder("reservation.instances.outstanding", balancer,
+					b -> b.getInstances().stream().mapToInt(ReservationInstance::getOutstanding).sum())
+					.register(registry);
+		};
+	}
+
+	// same settings as flightreservation's WireFormatConfig, dates travel as epoch millis
+	public static ObjectMapper cborMapper() {
+		return Jackson2ObjectMapperBuilder.cbor().build();
+	}
+}
@@ -1,20 +1,47 @@
 package com.demiglace.flightcheckin.controllers;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.ModelMap;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
 
-import com.demiglace.flightcheckin.integration.ReservationRestClient;
+import com.demiglace.flightcheckin.boardingpass.BoardingPassService;
+import com.demiglace.flightcheckin.integration.ReactiveReservationRestClient;
+import com.demiglace.flightcheckin.integration.ReservationServiceUnavailableException;
+import com.demiglace.flightcheckin.journal.CheckInJournal;
 import com.demiglace.integration.dto.Reservation;
 import com.demiglace.integration.dto.ReservationUpdateRequest;
+import com.demiglace.integration.dto.ReservationUpdateResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Controller
 public class CheckInController {
+	// status of a group member accepted into the journal, next to UPDATED and NOT_FOUND
+	static final String JOURNALED = "JOURNALED";
+
+	// the request thread is handed back to tomcat while the calls to flightreservation are in flight
+	@Autowired
+	ReactiveReservationRestClient restClient;
 
 	@Autowired
-	ReservationRestClient restClient;
+	CheckInJournal checkInJournal;
+
+	@Autowired
+	BoardingPassService boardingPassService;
 
 	@RequestMapping("/showStartCheckin")
 	public String showStartCheckin() {
@@ -22,20 +49,147 @@ public class CheckInController {
 	}
 
 	@RequestMapping("/startCheckIn")
-	public String startCheckIn(@RequestParam("reservationId") Long reservationId, ModelMap modelMap) {
-		Reservation reservation = restClient.findReservation(reservationId);
-		modelMap.addAttribute("reservation", reservation);
-		return "displayReservationDetails";
+	public Mono<String> startCheckIn(@RequestParam("reservationId") Long reservationId, ModelMap modelMap) {
+		return restClient.findReservation(reservationId).map(reservation -> {
+			modelMap.addAttribute("reservation", reservation);
+			return "displayReservationDetails";
+		});
 	}
 
 	@RequestMapping("/completeCheckIn")
-	public String completeCheckin(@RequestParam("reservationId") Long reservationid,
-			@RequestParam("numberOfBags") int numberOfBags) {
+	public Mono<String> completeCheckin(@RequestParam("reservationId") Long reservationid,
+			@RequestParam("numberOfBags") int numberOfBags, ModelMap modelMap) {
+		modelMap.addAttribute("reservationId", reservationid);
 		ReservationUpdateRequest reservationUpdateRequest =	new ReservationUpdateRequest();
 		reservationUpdateRequest.setId(reservationid);
 		reservationUpdateRequest.setNumberOfBags(numberOfBags);
 		reservationUpdateRequest.setCheckedIn(true);
-		restClient.updateReservation(reservationUpdateRequest);
-		return "checkInConfirmation";
+		// earlier check-ins of this reservation are still journaled, this one has to go behind them
+		if (checkInJournal.hasPending(reservationid)) {
+			return journal(reservationUpdateRequest);
+		}
+		return restClient.updateReservation(reservationUpdateRequest).thenReturn("checkInConfirmation")
+				.onErrorResume(ReservationServiceUnavailableException.class, e -> journal(reservationUpdateRequest));
+	}
+
+	// flightreservation is down: accept the check-in locally, CheckInJournalReplayer sends it later
+	private Mono<String> journal(ReservationUpdateRequest reservationUpdateRequest) {
+		return Mono.fromCallable(() -> {
+			if (!checkInJournal.append(reservationUpdateRequest)) {
+				throw new ReservationServiceUnavailableException("flightreservation is unavailable and the journal is full", null);
+			}
+			return "checkInConfirmation";
+		}).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	@RequestMapping("/showStartGroupCheckIn")
+	public String showStartGroupCheckIn() {
+		return "startGroupCheckIn";
+	}
+
+	// the lookups of the group run concurrently, the page keeps the order the ids were entered in
+	@RequestMapping("/startGroupCheckIn")
+	public Mono<String> startGroupCheckIn(@RequestParam("reservationIds") List<Long> reservationIds,
+			ModelMap modelMap) {
+		return Flux.fromIterable(reservationIds).flatMapSequential(restClient::findReservation).collectList()
+				.map(reservations -> {
+					modelMap.addAttribute("reservations", reservations);
+					return "displayGroupReservationDetails";
+				});
+	}
+
+	// the whole group is checked in with a single call to flightreservation, or journaled like a single
+	// check-in when flightreservation is down or a member still has a journaled check-in to go first
+	@RequestMapping("/completeGroupCheckIn")
+	public Mono<String> completeGroupCheckIn(@RequestParam("reservationId") List<Long> reservationIds,
+			@RequestParam("numberOfBags") List<Integer> numberOfBags, ModelMap modelMap) {
+		// one bag count per reservation, the form sends them as pairs
+		if (reservationIds.size() != numberOfBags.size()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					reservationIds.size() + " reservations but " + numberOfBags.size() + " bag counts");
+		}
+		List<ReservationUpdateRequest> requests = new ArrayList<>(reservationIds.size());
+		for (int i = 0; i < reservationIds.size(); i++) {
+			ReservationUpdateRequest reservationUpdateRequest = new ReservationUpdateRequest();
+			reservationUpdateRequest.setId(reservationIds.get(i));
+			reservationUpdateRequest.setNumberOfBags(numberOfBags.get(i));
+			reservationUpdateRequest.setCheckedIn(true);
+			requests.add(reservationUpdateRequest);
+		}
+		Mono<List<ReservationUpdateResult>> results;
+		if (requests.stream().anyMatch(request -> checkInJournal.hasPending(request.getId()))) {
+			results = journalGroup(requests);
+		} else {
+			results = restClient.updateReservations(requests)
+					.onErrorResume(ReservationServiceUnavailableException.class, e -> journalGroup(requests));
+		}
+		return results.map(updated -> {
+			modelMap.addAttribute("results", updated);
+			return "groupCheckInConfirmation";
+		});
+	}
+
+	// the group goes into the journal as a whole so its members are replayed together, in order
+	private Mono<List<ReservationUpdateResult>> journalGroup(List<ReservationUpdateRequest> requests) {
+		return Mono.fromCallable(() -> {
+			if (!checkInJournal.appendAll(requests)) {
+				throw new ReservationServiceUnavailableException("flightreservation is unavailable and the journal is full", null);
+			}
+			List<ReservationUpdateResult> results = new ArrayList<>(requests.size());
+			for (ReservationUpdateRequest request : requests) {
+				results.add(new ReservationUpdateResult(request.getId(), JOURNALED, null));
+			}
+			return results;
+		}).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	@RequestMapping("/boardingPass")
+	public Mono<ResponseEntity<byte[]>> boardingPass(@RequestParam("reservationId") Long reservationId) {
+		return restClient.findReservation(reservationId).flatMap(reservation -> isCheckedIn(reservation)
+				? Mono.fromFuture(boardingPassService.generatePdf(reservation))
+						.map(pdf -> document(pdf, MediaType.APPLICATION_PDF, "boarding-pass-" + reservationId + ".pdf"))
+				: Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).<byte[]>build()));
+	}
+
+	@RequestMapping("/boardingPass/barcode")
+	public Mono<ResponseEntity<byte[]>> boardingPassBarcode(@RequestParam("reservationId") Long reservationId) {
+		return restClient.findReservation(reservationId).flatMap(reservation -> isCheckedIn(reservation)
+				? Mono.fromFuture(boardingPassService.generateBarcode(reservation))
+						.map(png -> document(png, MediaType.IMAGE_PNG, "boarding-pass-" + reservationId + ".png"))
+				: Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).<byte[]>build()));
+	}
+
+	// the passes of a group check-in as one document, one page per passenger
+	@RequestMapping("/groupBoardingPasses")
+	public Mono<ResponseEntity<byte[]>> groupBoardingPasses(@RequestParam("reservationId") List<Long> reservationIds) {
+		return Flux.fromIterable(reservationIds).flatMapSequential(restClient::findReservation)
+				.filter(this::isCheckedIn).collectList()
+				.flatMap(reservations -> reservations.isEmpty()
+						? Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).<byte[]>build())
+						: Mono.fromFuture(boardingPassService.generateGroupPdf(reservations))
+								.map(pdf -> document(pdf, MediaType.APPLICATION_PDF, "boarding-passes.pdf")));
+	}
+
+	// a check-in still in the journal counts, flightreservation just hasn't heard of it yet
+	private boolean isCheckedIn(Reservation reservation) {
+		return Boolean.TRUE.equals(reservation.getCheckedIn()) || checkInJournal.hasPending(reservation.getId());
+	}
+
+	private ResponseEntity<byte[]> document(byte[] content, MediaType mediaType, String fileName) {
+		return ResponseEntity.ok().contentType(mediaType)
+				.header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"").body(content);
+	}
+
+	// every boarding pass worker is busy and the queue is full
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity<String> boardingPassesBusy() {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+				.body("Boarding passes are busy, please retry in a moment");
+	}
+
+	// fallback page when flightreservation is down, slow or the circuit is open
+	@ExceptionHandler(ReservationServiceUnavailableException.class)
+	public String reservationServiceUnavailable() {
+		return "reservationServiceUnavailable";
 	}
 }
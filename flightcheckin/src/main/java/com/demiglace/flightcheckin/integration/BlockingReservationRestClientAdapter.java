@@ -0,0 +1,41 @@
+package com.demiglace.flightcheckin.integration;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.demiglace.integration.dto.Reservation;
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+import com.demiglace.integration.dto.ReservationUpdateResult;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Serves the reactive interface with the blocking RestTemplate client,
+ * each call still holds a (bounded elastic) thread while it waits.
+ */
+@Component
+@ConditionalOnProperty(name = "com.demiglace.flightcheckin.reservation.client", havingValue = "blocking", matchIfMissing = true)
+public class BlockingReservationRestClientAdapter implements ReactiveReservationRestClient {
+
+	@Autowired
+	ReservationRestClient restClient;
+
+	@Override
+	public Mono<Reservation> findReservation(Long id) {
+		return Mono.fromCallable(() -> restClient.findReservation(id)).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	@Override
+	public Mono<Reservation> updateReservation(ReservationUpdateRequest request) {
+		return Mono.fromCallable(() -> restClient.updateReservation(request)).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	@Override
+	public Mono<List<ReservationUpdateResult>> updateReservations(List<ReservationUpdateRequest> requests) {
+		return Mono.fromCallable(() -> restClient.updateReservations(requests)).subscribeOn(Schedulers.boundedElastic());
+	}
+}
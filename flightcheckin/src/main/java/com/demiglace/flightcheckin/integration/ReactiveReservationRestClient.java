@@ -0,0 +1,17 @@
+package com.demiglace.flightcheckin.integration;
+
+import java.util.List;
+
+import com.demiglace.integration.dto.Reservation;
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+import com.demiglace.integration.dto.ReservationUpdateResult;
+
+import reactor.core.publisher.Mono;
+
+public interface ReactiveReservationRestClient {
+	public Mono<Reservation> findReservation(Long id);
+
+	public Mono<Reservation> updateReservation(ReservationUpdateRequest request);
+
+	public Mono<List<ReservationUpdateResult>> updateReservations(List<ReservationUpdateRequest> requests);
+}
@@ -0,0 +1,74 @@
+package com.demiglace.flightcheckin.integration;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One flightreservation backend, with the calls currently in flight to it and its health.
+ */
+public class ReservationInstance {
+	private final String url;
+	private final String host;
+	private final int port;
+	private final AtomicInteger outstanding = new AtomicInteger();
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+	private volatile boolean healthy = true;
+
+	public ReservationInstance(String url) {
+		this.url = url.endsWith("/") ? url : url + "/";
+		URI uri = URI.create(this.url);
+		this.host = uri.getHost();
+		this.port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(uri.getScheme()) ? 443 : 80);
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public String getHost() {
+		return host;
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	public int getOutstanding() {
+		return outstanding.get();
+	}
+
+	public boolean isHealthy() {
+		return healthy;
+	}
+
+	void acquire() {
+		outstanding.incrementAndGet();
+	}
+
+	void release() {
+		outstanding.decrementAndGet();
+	}
+
+	void recordSuccess() {
+		consecutiveFailures.set(0);
+	}
+
+	// taken out of the rotation after maxFailures failures in a row, the health check brings it back
+	void recordFailure(int maxFailures) {
+		if (consecutiveFailures.incrementAndGet() >= maxFailures) {
+			healthy = false;
+		}
+	}
+
+	void setHealthy(boolean healthy) {
+		if (healthy) {
+			consecutiveFailures.set(0);
+		}
+		this.healthy = healthy;
+	}
+
+	@Override
+	public String toString() {
+		return "ReservationInstance [url=" + url + ", outstanding=" + outstanding + ", healthy=" + healthy + "]";
+	}
+}
@@ -0,0 +1,180 @@
+package com.demiglace.flightcheckin.integration;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.demiglace.flightcheckin.config.ResilienceConfig;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Spreads the calls over the flightreservation instances with power of two choices: two healthy
+ * instances are picked at random and the one with fewer calls in flight gets the call.
+ * Instances come from com.demiglace.flightcheckin.reservation.instances and, when set, from a file with
+ * one url per line which is re-read on every health check.
+ */
+@Component
+public class ReservationInstanceBalancer {
+	@Value("${com.demiglace.flightcheckin.reservation.instances}")
+	private String[] INSTANCES;
+
+	@Value("${com.demiglace.flightcheckin.reservation.instancesfile}")
+	private String INSTANCES_FILE;
+
+	@Value("${com.demiglace.flightcheckin.reservation.connecttimeoutmillis}")
+	private int CONNECT_TIMEOUT_MILLIS;
+
+	@Value("${com.demiglace.flightcheckin.reservation.balancer.maxfailures}")
+	private int MAX_FAILURES;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReservationInstanceBalancer.class);
+
+	private volatile List<ReservationInstance> instances = Collections.emptyList();
+	// replaced by a seeded one in tests
+	private Supplier<Random> random = ThreadLocalRandom::current;
+	private long instancesFileModified;
+
+	@PostConstruct
+	public void init() {
+		instances = merge(Arrays.asList(INSTANCES));
+		loadInstancesFile();
+	}
+
+	public List<ReservationInstance> getInstances() {
+		return instances;
+	}
+
+	// runs the call against the chosen instance's base url, a retry chooses again among the instances
+	// not tried yet; tried is the caller's set for one call and all of its retries
+	public <T> T execute(Function<String, T> call, Set<ReservationInstance> tried) {
+		ReservationInstance instance = choose(tried);
+		try {
+			T result = call.apply(instance.getUrl());
+			instance.recordSuccess();
+			return result;
+		} catch (RuntimeException e) {
+			recordFailure(instance, e);
+			throw e;
+		} finally {
+			instance.release();
+		}
+	}
+
+	public <T> Mono<T> executeReactive(Function<String, Mono<T>> call, Set<ReservationInstance> tried) {
+		return Mono.using(() -> choose(tried),
+				instance -> call.apply(instance.getUrl())
+						.doOnSuccess(result -> instance.recordSuccess())
+						.doOnError(e -> recordFailure(instance, e)),
+				ReservationInstance::release);
+	}
+
+	ReservationInstance choose(Set<ReservationInstance> tried) {
+		List<ReservationInstance> candidates = instances.stream().filter(ReservationInstance::isHealthy)
+				.collect(Collectors.toList());
+		if (candidates.isEmpty()) {
+			// better to try a backend marked down than to fail every check-in
+			candidates = instances;
+		}
+		List<ReservationInstance> untried = candidates.stream().filter(instance -> !tried.contains(instance))
+				.collect(Collectors.toList());
+		if (!untried.isEmpty()) {
+			candidates = untried;
+		}
+		ReservationInstance chosen = candidates.get(0);
+		if (candidates.size() > 1) {
+			Random random = this.random.get();
+			int first = random.nextInt(candidates.size());
+			int second = random.nextInt(candidates.size() - 1);
+			if (second >= first) {
+				second++;
+			}
+			ReservationInstance a = candidates.get(first);
+			ReservationInstance b = candidates.get(second);
+			chosen = a.getOutstanding() <= b.getOutstanding() ? a : b;
+		}
+		tried.add(chosen);
+		chosen.acquire();
+		return chosen;
+	}
+
+	@Scheduled(fixedDelayString = "${com.demiglace.flightcheckin.reservation.balancer.healthcheckmillis}")
+	public void checkInstances() {
+		loadInstancesFile();
+		for (ReservationInstance instance : instances) {
+			boolean healthy = isReachable(instance);
+			if (healthy != instance.isHealthy()) {
+				LOGGER.info("flightreservation instance {} is {}", instance.getUrl(), healthy ? "up" : "down");
+			}
+			instance.setHealthy(healthy);
+		}
+	}
+
+	private void recordFailure(ReservationInstance instance, Throwable e) {
+		if (ResilienceConfig.isTransientFailure(e)) {
+			instance.recordFailure(MAX_FAILURES);
+		}
+	}
+
+	private boolean isReachable(ReservationInstance instance) {
+		try (Socket socket = new Socket()) {
+			socket.connect(new InetSocketAddress(instance.getHost(), instance.getPort()), CONNECT_TIMEOUT_MILLIS);
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private synchronized void loadInstancesFile() {
+		if (INSTANCES_FILE.isEmpty()) {
+			return;
+		}
+		File file = new File(INSTANCES_FILE);
+		if (!file.exists() || file.lastModified() == instancesFileModified) {
+			return;
+		}
+		try {
+			List<String> urls = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8).stream().map(String::trim)
+					.filter(line -> !line.isEmpty() && !line.startsWith("#")).collect(Collectors.toList());
+			if (!urls.isEmpty()) {
+				instances = merge(urls);
+				LOGGER.info("flightreservation instances: {}", instances);
+			}
+			instancesFileModified = file.lastModified();
+		} catch (IOException e) {
+			LOGGER.error("could not read flightreservation instances from {}: {}", INSTANCES_FILE, e.toString());
+		}
+	}
+
+	// instances that stay in the list keep their counters
+	private List<ReservationInstance> merge(List<String> urls) {
+		List<ReservationInstance> merged = new ArrayList<>(urls.size());
+		for (String url : urls) {
+			ReservationInstance instance = new ReservationInstance(url.trim());
+			merged.add(instances.stream().filter(existing -> existing.getUrl().equals(instance.getUrl())).findFirst()
+					.orElse(instance));
+		}
+		return Collections.unmodifiableList(merged);
+	}
+}
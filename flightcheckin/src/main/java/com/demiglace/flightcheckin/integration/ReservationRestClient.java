@@ -1,10 +1,15 @@
 package com.demiglace.flightcheckin.integration;
 
+import java.util.List;
+
 import com.demiglace.integration.dto.Reservation;
 import com.demiglace.integration.dto.ReservationUpdateRequest;
+import com.demiglace.integration.dto.ReservationUpdateResult;
 
 public interface ReservationRestClient {
 	public Reservation findReservation(Long id);
 	
 	public Reservation updateReservation(ReservationUpdateRequest request);
+
+	public List<ReservationUpdateResult> updateReservations(List<ReservationUpdateRequest> requests);
 }
@@ -1,28 +1,119 @@
 package com.demiglace.flightcheckin.integration;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+import com.demiglace.flightcheckin.config.ResilienceConfig;
 import com.demiglace.integration.dto.Reservation;
 import com.demiglace.integration.dto.ReservationUpdateRequest;
+import com.demiglace.integration.dto.ReservationUpdateResult;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
 
 @Component
 public class ReservationRestClientImpl implements ReservationRestClient {
-	private static final String RESERVATION_REST_URL = "http://localhost:8080/flightreservation/reservations/";
+	@Autowired
+	RestTemplate restTemplate;
+
+	@Autowired
+	ReservationInstanceBalancer balancer;
+
+	@Autowired
+	SingleFlight<Long, Reservation> reservationLookups;
+
+	@Autowired
+	CircuitBreaker circuitBreaker;
+
+	@Autowired
+	Bulkhead bulkhead;
+
+	@Autowired
+	Retry retry;
+
+	@Autowired
+	RetryBudget retryBudget;
+
+	@Autowired
+	CacheManager cacheManager;
 
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReservationRestClientImpl.class);
+
+	// short lived near-cache, kiosks and agents look up the same reservation many times,
+	// cache misses for the same id at the same moment share one call
 	@Override
+	@Cacheable(cacheNames = "reservations", key = "#id")
 	public Reservation findReservation(Long id) {
-		RestTemplate restTemplate = new RestTemplate();
-		Reservation reservation = restTemplate.getForObject(RESERVATION_REST_URL + id,
-				Reservation.class);
+		Reservation reservation = reservationLookups.execute(id,
+				() -> call(url -> restTemplate.getForObject(url + id, Reservation.class)));
 		return reservation;
 	}
 
+	// write-through: the cached entry is dropped before the call and replaced by the updated reservation
 	@Override
+	@Caching(evict = @CacheEvict(cacheNames = "reservations", key = "#request.id", beforeInvocation = true),
+			put = @CachePut(cacheNames = "reservations", key = "#request.id", unless = "#result == null"))
 	public Reservation updateReservation(ReservationUpdateRequest request) {
-		RestTemplate restTemplate = new RestTemplate();
-		Reservation reservation = restTemplate.postForObject(RESERVATION_REST_URL, request,
-				Reservation.class);
+		// the update sets absolute values so it is safe to retry
+		Reservation reservation = call(url -> restTemplate.postForObject(url, request, Reservation.class));
 		return reservation;
 	}
+
+	// one round trip for the whole group, the cache is kept in step item by item
+	@Override
+	public List<ReservationUpdateResult> updateReservations(List<ReservationUpdateRequest> requests) {
+		Cache cache = cacheManager.getCache("reservations");
+		requests.forEach(request -> cache.evict(request.getId()));
+		ReservationUpdateResult[] results = call(url -> restTemplate.postForObject(url + "batch", requests,
+				ReservationUpdateResult[].class));
+		for (ReservationUpdateResult result : results) {
+			if (result.getReservation() != null) {
+				cache.put(result.getId(), result.getReservation());
+			}
+		}
+		return Arrays.asList(results);
+	}
+
+	// retry -> circuit breaker -> bulkhead -> balancer -> http call
+	private <T> T call(Function<String, T> httpCall) {
+		retryBudget.recordCall();
+		Set<ReservationInstance> tried = new HashSet<>();
+		Supplier<T> decorated = Retry.decorateSupplier(retry,
+				CircuitBreaker.decorateSupplier(circuitBreaker,
+						Bulkhead.decorateSupplier(bulkhead, () -> balancer.execute(httpCall, tried))));
+		try {
+			return decorated.get();
+		} catch (CallNotPermittedException | BulkheadFullException e) {
+			throw unavailable(e);
+		} catch (RuntimeException e) {
+			if (ResilienceConfig.isTransientFailure(e)) {
+				throw unavailable(e);
+			}
+			throw e;
+		}
+	}
+
+	private ReservationServiceUnavailableException unavailable(RuntimeException e) {
+		LOGGER.warn("flightreservation unavailable: {}", e.toString());
+		return new ReservationServiceUnavailableException("flightreservation is unavailable", e);
+	}
 }
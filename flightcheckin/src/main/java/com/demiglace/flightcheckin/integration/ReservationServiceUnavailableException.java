@@ -0,0 +1,9 @@
+package com.demiglace.flightcheckin.integration;
+
+public class ReservationServiceUnavailableException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	public ReservationServiceUnavailableException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
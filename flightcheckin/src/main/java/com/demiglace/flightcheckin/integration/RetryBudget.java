@@ -0,0 +1,39 @@
+package com.demiglace.flightcheckin.integration;
+
+/**
+ * Token bucket that limits retries to a fraction of the calls made, so retries
+ * cannot multiply the load on flightreservation while it is struggling.
+ */
+public class RetryBudget {
+	private final double ratio;
+	private final double maxTokens;
+	private double tokens;
+
+	public RetryBudget(double ratio, int maxTokens) {
+		this.ratio = ratio;
+		this.maxTokens = maxTokens;
+		this.tokens = maxTokens;
+	}
+
+	// every call earns a fraction of a retry
+	public synchronized void recordCall() {
+		tokens = Math.min(maxTokens, tokens + ratio);
+	}
+
+	public synchronized boolean tryAcquireRetry() {
+		if (tokens < 1) {
+			return false;
+		}
+		tokens -= 1;
+		return true;
+	}
+
+	// for a token taken for a retry that never ran
+	public synchronized void refundRetry() {
+		tokens = Math.min(maxTokens, tokens + 1);
+	}
+
+	public synchronized double getAvailableTokens() {
+		return tokens;
+	}
+}
@@ -0,0 +1,124 @@
+package com.demiglace.flightcheckin.integration;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller makes the call, the ones arriving
+ * while it is in flight wait for it and share its result or its failure.
+ */
+public class SingleFlight<K, V> {
+	private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final AtomicLong calls = new AtomicLong();
+	private final AtomicLong coalesced = new AtomicLong();
+
+	public V execute(K key, Supplier<V> call) {
+		CompletableFuture<V> flight = new CompletableFuture<>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+		if (existing != null) {
+			// a blocked caller can't leave, a reactive flight it joins is never cancelled
+			if (existing instanceof ReactiveFlight && !((ReactiveFlight<V>) existing).enter()) {
+				return execute(key, call);
+			}
+			coalesced.incrementAndGet();
+			return join(existing);
+		}
+		calls.incrementAndGet();
+		try {
+			V value = call.get();
+			flight.complete(value);
+			return value;
+		} catch (RuntimeException e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, flight);
+		}
+	}
+
+	// the call runs once for all of its subscribers and is only cancelled when the last one has left
+	public Mono<V> executeReactive(K key, Supplier<Mono<V>> call) {
+		return Mono.deferContextual(context -> {
+			ReactiveFlight<V> flight = new ReactiveFlight<>();
+			CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+			if (existing != null) {
+				if (!(existing instanceof ReactiveFlight)) {
+					coalesced.incrementAndGet();
+					return Mono.fromFuture(existing);
+				}
+				if (!((ReactiveFlight<V>) existing).enter()) {
+					// cancelled just now by its last subscriber
+					return executeReactive(key, call);
+				}
+				coalesced.incrementAndGet();
+				return ((ReactiveFlight<V>) existing).subscriber();
+			}
+			calls.incrementAndGet();
+			flight.enter();
+			Mono<V> subscriber = flight.subscriber();
+			// subscribed on its own so no single subscriber's cancel reaches it, in the first one's context
+			flight.upstream = call.get().contextWrite(context)
+					.doFinally(signal -> inFlight.remove(key, flight))
+					.subscribe(flight::complete, flight::completeExceptionally, () -> flight.complete(null));
+			return subscriber;
+		});
+	}
+
+	// calls that were actually made
+	public long getCallCount() {
+		return calls.get();
+	}
+
+	// calls saved by joining one already in flight
+	public long getCoalescedCount() {
+		return coalesced.get();
+	}
+
+	private V join(CompletableFuture<V> flight) {
+		try {
+			return flight.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	private static class ReactiveFlight<V> extends CompletableFuture<V> {
+		// subscribers still waiting, -1 once the flight has been cancelled
+		private final AtomicInteger subscribers = new AtomicInteger();
+		private volatile Disposable upstream;
+
+		boolean enter() {
+			int count;
+			do {
+				count = subscribers.get();
+				if (count < 0) {
+					return false;
+				}
+			} while (!subscribers.compareAndSet(count, count + 1));
+			return true;
+		}
+
+		// the caller has entered already
+		Mono<V> subscriber() {
+			return Mono.fromFuture(this).doOnCancel(this::leave);
+		}
+
+		private void leave() {
+			if (subscribers.decrementAndGet() == 0 && !isDone() && subscribers.compareAndSet(0, -1)) {
+				cancel(false);
+				upstream.dispose();
+			}
+		}
+	}
+}
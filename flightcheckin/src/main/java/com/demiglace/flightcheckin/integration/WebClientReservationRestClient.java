@@ -0,0 +1,140 @@
+package com.demiglace.flightcheckin.integration;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.demiglace.flightcheckin.config.ResilienceConfig;
+import com.demiglace.flightcheckin.config.RestClientConfig;
+import com.demiglace.integration.dto.Reservation;
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+import com.demiglace.integration.dto.ReservationUpdateResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.Retry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking client: no thread is held while flightreservation is working on the request.
+ * Shares the circuit breaker, bulkhead, retry budget and cache with the blocking client.
+ */
+@Component
+@ConditionalOnProperty(name = "com.demiglace.flightcheckin.reservation.client", havingValue = "reactive")
+public class WebClientReservationRestClient implements ReactiveReservationRestClient {
+	private static final ParameterizedTypeReference<List<ReservationUpdateResult>> UPDATE_RESULTS = new ParameterizedTypeReference<List<ReservationUpdateResult>>() {
+	};
+	private static final ObjectMapper CBOR_MAPPER = RestClientConfig.cborMapper();
+
+	@Autowired
+	WebClient webClient;
+
+	@Autowired
+	MediaType reservationMediaType;
+
+	@Autowired
+	ReservationInstanceBalancer balancer;
+
+	@Autowired
+	SingleFlight<Long, Reservation> reservationLookups;
+
+	@Autowired
+	CircuitBreaker circuitBreaker;
+
+	@Autowired
+	Bulkhead bulkhead;
+
+	@Autowired
+	Retry retry;
+
+	@Autowired
+	RetryBudget retryBudget;
+
+	@Autowired
+	CacheManager cacheManager;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WebClientReservationRestClient.class);
+
+	@Override
+	public Mono<Reservation> findReservation(Long id) {
+		Cache cache = cacheManager.getCache("reservations");
+		Reservation cached = cache.get(id, Reservation.class);
+		if (cached != null) {
+			return Mono.just(cached);
+		}
+		return reservationLookups.executeReactive(id,
+				() -> call(url -> webClient.get().uri(url + id).retrieve().bodyToMono(Reservation.class)))
+				.doOnNext(reservation -> cache.put(id, reservation));
+	}
+
+	@Override
+	public Mono<Reservation> updateReservation(ReservationUpdateRequest request) {
+		Cache cache = cacheManager.getCache("reservations");
+		return Mono.defer(() -> {
+			cache.evict(request.getId());
+			return call(url -> webClient.post().uri(url).contentType(reservationMediaType)
+					.bodyValue(body(request)).retrieve()
+					.bodyToMono(Reservation.class));
+		}).doOnNext(reservation -> cache.put(request.getId(), reservation));
+	}
+
+	@Override
+	public Mono<List<ReservationUpdateResult>> updateReservations(List<ReservationUpdateRequest> requests) {
+		Cache cache = cacheManager.getCache("reservations");
+		return Mono.defer(() -> {
+			requests.forEach(request -> cache.evict(request.getId()));
+			return call(url -> webClient.post().uri(url + "batch").contentType(reservationMediaType)
+					.bodyValue(body(requests)).retrieve()
+					.bodyToMono(UPDATE_RESULTS));
+		}).doOnNext(results -> results.stream().filter(result -> result.getReservation() != null)
+				.forEach(result -> cache.put(result.getId(), result.getReservation())));
+	}
+
+	// cbor is encoded up front, json is left to the webclient's own codec
+	private Object body(Object value) {
+		if (!MediaType.APPLICATION_CBOR.equals(reservationMediaType)) {
+			return value;
+		}
+		try {
+			return CBOR_MAPPER.writeValueAsBytes(value);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("could not encode " + value, e);
+		}
+	}
+
+	// retry -> circuit breaker -> bulkhead -> balancer -> http call, all without blocking
+	private <T> Mono<T> call(Function<String, Mono<T>> httpCall) {
+		return Mono.defer(() -> {
+			// counted once per call, the retries below resubscribe to the balanced call only
+			retryBudget.recordCall();
+			// the attempts may run on different threads, one after the other
+			Set<ReservationInstance> tried = ConcurrentHashMap.newKeySet();
+			return balancer.executeReactive(httpCall, tried).transformDeferred(BulkheadOperator.of(bulkhead))
+					.transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+					.transformDeferred(RetryOperator.of(retry));
+		}).onErrorMap(e -> e instanceof CallNotPermittedException || e instanceof BulkheadFullException
+				|| ResilienceConfig.isTransientFailure(e), e -> {
+					LOGGER.warn("flightreservation unavailable: {}", e.toString());
+					return new ReservationServiceUnavailableException("flightreservation is unavailable", e);
+				});
+	}
+}
@@ -0,0 +1,25 @@
+package com.demiglace.flightcheckin.journal;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+
+/**
+ * Local, durable queue of check-ins that could not be sent to flightreservation yet.
+ */
+public interface CheckInJournal {
+
+	// returns once the check-in is on disk, false when the journal is full
+	boolean append(ReservationUpdateRequest request);
+
+	// a group check-in: all of it is on disk, in order, or none of it when it doesn't fit
+	boolean appendAll(List<ReservationUpdateRequest> requests);
+
+	boolean hasPending(Long reservationId);
+
+	int pendingCount();
+
+	// hands the journaled check-ins to apply in the order they were accepted, stops when apply returns false
+	int replay(Predicate<ReservationUpdateRequest> apply);
+}
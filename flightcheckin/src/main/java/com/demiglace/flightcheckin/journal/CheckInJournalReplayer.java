@@ -0,0 +1,48 @@
+package com.demiglace.flightcheckin.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.demiglace.flightcheckin.integration.ReservationRestClient;
+import com.demiglace.flightcheckin.integration.ReservationServiceUnavailableException;
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+
+/**
+ * Sends the journaled check-ins to flightreservation once it is reachable again.
+ */
+@Component
+public class CheckInJournalReplayer {
+	@Autowired
+	CheckInJournal checkInJournal;
+
+	@Autowired
+	ReservationRestClient restClient;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CheckInJournalReplayer.class);
+
+	@Scheduled(fixedDelayString = "${com.demiglace.flightcheckin.journal.replaydelaymillis}")
+	public void replayJournal() {
+		if (checkInJournal.pendingCount() == 0) {
+			return;
+		}
+		int replayed = checkInJournal.replay(this::apply);
+		LOGGER.info("replayed {} journaled check-ins, {} still waiting", replayed, checkInJournal.pendingCount());
+	}
+
+	// the updates are absolute values, so sending one again after a crash does no harm
+	private boolean apply(ReservationUpdateRequest request) {
+		try {
+			restClient.updateReservation(request);
+			return true;
+		} catch (ReservationServiceUnavailableException e) {
+			// still down, stop here so later check-ins of the same reservation stay behind this one
+			return false;
+		} catch (RuntimeException e) {
+			LOGGER.error("dropping journaled check-in of reservation {}: {}", request.getId(), e.toString());
+			return true;
+		}
+	}
+}
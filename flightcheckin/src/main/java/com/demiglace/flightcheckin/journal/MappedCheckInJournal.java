@@ -0,0 +1,272 @@
+package com.demiglace.flightcheckin.journal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+
+/**
+ * Append-only journal in a memory-mapped file of fixed size.
+ *
+ * Layout: a 64 byte header (magic, epoch, replay offset) followed by 32 byte records
+ * (epoch, reservation id, number of bags, checked in, crc). Appends only write to the mapping, a single
+ * flusher thread forces the file to disk and releases every append that made it into that fsync, so
+ * concurrent check-ins share one fsync. Once everything is replayed the epoch is bumped and writing starts
+ * over at the beginning, records of an older epoch or with a bad crc mark the end of the journal.
+ */
+@Component
+public class MappedCheckInJournal implements CheckInJournal {
+	private static final int MAGIC = 0x43484b4a;
+	private static final int HEADER_SIZE = 64;
+	private static final int EPOCH_OFFSET = 4;
+	private static final int REPLAY_OFFSET = 8;
+	private static final int RECORD_SIZE = 32;
+	private static final int RECORD_DATA_SIZE = 17;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(MappedCheckInJournal.class);
+
+	private final long flushMillis;
+	private final RandomAccessFile file;
+	private final MappedByteBuffer buffer;
+	private final Thread flusher;
+	private final Map<Long, Integer> pending = new ConcurrentHashMap<>();
+	private final AtomicLong flushes = new AtomicLong();
+	private final Object replayLock = new Object();
+
+	// guarded by this
+	private int epoch;
+	private long writeOffset;
+	private long replayOffset;
+	private long appendedCount;
+	private long durableCount;
+	private boolean running = true;
+
+	public MappedCheckInJournal(@Value("${com.demiglace.flightcheckin.journal.path}") String path,
+			@Value("${com.demiglace.flightcheckin.journal.capacity}") int capacity,
+			@Value("${com.demiglace.flightcheckin.journal.flushmillis}") long flushMillis) throws IOException {
+		this.flushMillis = flushMillis;
+		File journalFile = new File(path);
+		if (journalFile.getParentFile() != null) {
+			journalFile.getParentFile().mkdirs();
+		}
+		file = new RandomAccessFile(journalFile, "rw");
+		buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+		recover();
+		flusher = new Thread(this::flushLoop, "checkin-journal-flusher");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	@Override
+	public boolean append(ReservationUpdateRequest request) {
+		return appendAll(Collections.singletonList(request));
+	}
+
+	@Override
+	public boolean appendAll(List<ReservationUpdateRequest> requests) {
+		long sequence;
+		synchronized (this) {
+			if (writeOffset + (long) requests.size() * RECORD_SIZE > buffer.capacity()) {
+				return false;
+			}
+			for (ReservationUpdateRequest request : requests) {
+				write(writeOffset, record(epoch, request));
+				writeOffset += RECORD_SIZE;
+				pending.merge(request.getId(), 1, Integer::sum);
+			}
+			sequence = ++appendedCount;
+			notifyAll();
+			// group commit: wait for the flusher instead of forcing the file for every check-in
+			while (durableCount < sequence && running) {
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("interrupted while waiting for the journal fsync", e);
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean hasPending(Long reservationId) {
+		return pending.containsKey(reservationId);
+	}
+
+	@Override
+	public int pendingCount() {
+		return pending.values().stream().mapToInt(Integer::intValue).sum();
+	}
+
+	@Override
+	public int replay(Predicate<ReservationUpdateRequest> apply) {
+		synchronized (replayLock) {
+			long offset;
+			long end;
+			synchronized (this) {
+				offset = replayOffset;
+				end = writeOffset;
+			}
+			int replayed = 0;
+			while (offset < end) {
+				ReservationUpdateRequest request = read(offset);
+				if (!apply.test(request)) {
+					break;
+				}
+				offset += RECORD_SIZE;
+				replayed++;
+				pending.computeIfPresent(request.getId(), (id, count) -> count > 1 ? count - 1 : null);
+			}
+			if (replayed > 0) {
+				checkpoint(offset);
+			}
+			return replayed;
+		}
+	}
+
+	long getFlushCount() {
+		return flushes.get();
+	}
+
+	@PreDestroy
+	public void close() throws IOException, InterruptedException {
+		synchronized (this) {
+			running = false;
+			notifyAll();
+		}
+		flusher.join();
+		buffer.force();
+		file.close();
+	}
+
+	// a crash can lose the checkpoint of the last replay, those check-ins are simply sent again
+	private synchronized void checkpoint(long offset) {
+		if (offset == writeOffset) {
+			epoch++;
+			buffer.putInt(EPOCH_OFFSET, epoch);
+			writeOffset = HEADER_SIZE;
+			offset = HEADER_SIZE;
+		}
+		replayOffset = offset;
+		buffer.putLong(REPLAY_OFFSET, offset);
+		buffer.force();
+	}
+
+	private void recover() {
+		if (buffer.getInt(0) != MAGIC) {
+			buffer.putInt(0, MAGIC);
+			buffer.putInt(EPOCH_OFFSET, 1);
+			buffer.putLong(REPLAY_OFFSET, HEADER_SIZE);
+			buffer.force();
+		}
+		epoch = buffer.getInt(EPOCH_OFFSET);
+		replayOffset = buffer.getLong(REPLAY_OFFSET);
+		writeOffset = HEADER_SIZE;
+		while (writeOffset + RECORD_SIZE <= buffer.capacity() && isValid(writeOffset)) {
+			if (writeOffset >= replayOffset) {
+				pending.merge(read(writeOffset).getId(), 1, Integer::sum);
+			}
+			writeOffset += RECORD_SIZE;
+		}
+		LOGGER.info("check-in journal opened, {} check-ins waiting for flightreservation", pendingCount());
+	}
+
+	private void flushLoop() {
+		while (true) {
+			synchronized (this) {
+				while (running && durableCount == appendedCount) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (!running) {
+					return;
+				}
+			}
+			try {
+				// lets the check-ins arriving meanwhile join this fsync
+				Thread.sleep(flushMillis);
+			} catch (InterruptedException e) {
+				return;
+			}
+			long target;
+			synchronized (this) {
+				target = appendedCount;
+			}
+			buffer.force();
+			flushes.incrementAndGet();
+			synchronized (this) {
+				durableCount = target;
+				notifyAll();
+			}
+		}
+	}
+
+	private boolean isValid(long offset) {
+		byte[] data = new byte[RECORD_SIZE];
+		read(offset, data);
+		ByteBuffer record = ByteBuffer.wrap(data);
+		return record.getInt(0) == epoch && record.getInt(RECORD_DATA_SIZE) == crc(data);
+	}
+
+	private ReservationUpdateRequest read(long offset) {
+		byte[] data = new byte[RECORD_SIZE];
+		read(offset, data);
+		ByteBuffer record = ByteBuffer.wrap(data);
+		ReservationUpdateRequest request = new ReservationUpdateRequest();
+		request.setId(record.getLong(4));
+		request.setNumberOfBags(record.getInt(12));
+		request.setCheckedIn(record.get(16) == 1);
+		return request;
+	}
+
+	private static byte[] record(int epoch, ReservationUpdateRequest request) {
+		byte[] data = new byte[RECORD_SIZE];
+		ByteBuffer record = ByteBuffer.wrap(data);
+		record.putInt(0, epoch);
+		record.putLong(4, request.getId());
+		record.putInt(12, request.getNumberOfBags());
+		record.put(16, (byte) (Boolean.TRUE.equals(request.getCheckedIn()) ? 1 : 0));
+		record.putInt(RECORD_DATA_SIZE, crc(data));
+		return data;
+	}
+
+	private static int crc(byte[] data) {
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, RECORD_DATA_SIZE);
+		return (int) crc.getValue();
+	}
+
+	private void read(long offset, byte[] data) {
+		ByteBuffer view = buffer.duplicate();
+		view.position((int) offset);
+		view.get(data);
+	}
+
+	private void write(long offset, byte[] data) {
+		ByteBuffer view = buffer.duplicate();
+		view.position((int) offset);
+		view.put(data);
+	}
+}
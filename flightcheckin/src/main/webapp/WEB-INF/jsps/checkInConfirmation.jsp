@@ -9,6 +9,10 @@
 <body>
 
 Check in completed Successfully.
+<br/>
+<a href="boardingPass?reservationId=${reservationId}">Print boarding pass</a>
+<br/>
+<img src="boardingPass/barcode?reservationId=${reservationId}" alt="Boarding pass barcode"/>
 
 </body>
 </html>
\ No newline at end of file
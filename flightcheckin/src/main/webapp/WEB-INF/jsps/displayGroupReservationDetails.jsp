@@ -0,0 +1,36 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8"
+    pageEncoding="UTF-8"%>
+<%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
+<!DOCTYPE html PUBLIC "-//W3C//DTD HTML 4.01 Transitional//EN" "http://www.w3.org/TR/html4/loose.dtd">
+<html>
+<head>
+<meta http-equiv="Content-Type" content="text/html; charset=UTF-8">
+<title>Group Reservation Details</title>
+</head>
+<body>
+<h2>Group Reservation Details:</h2>
+
+<form action="completeGroupCheckIn" method="post">
+<table>
+<tr>
+<th>Reservation</th>
+<th>Passenger</th>
+<th>Flight</th>
+<th>Departure</th>
+<th>Number Of Bags</th>
+</tr>
+<c:forEach items="${reservations}" var="reservation">
+<tr>
+<td>${reservation.id}<input type="hidden" value="${reservation.id}" name="reservationId"/></td>
+<td>${reservation.passenger.firstName} ${reservation.passenger.lastName}</td>
+<td>${reservation.flight.operatingAirlines} ${reservation.flight.flightNumber}</td>
+<td>${reservation.flight.departureCity} - ${reservation.flight.arrivalCity} ${reservation.flight.dateOfDeparture}</td>
+<td><input type="text" name="numberOfBags" value="0"/></td>
+</tr>
+</c:forEach>
+</table>
+<input type="submit" value="Check In Group"/>
+</form>
+
+</body>
+</html>
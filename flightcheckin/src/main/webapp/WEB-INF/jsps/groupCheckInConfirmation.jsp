@@ -0,0 +1,36 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8"
+    pageEncoding="UTF-8"%>
+<%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
+<!DOCTYPE html PUBLIC "-//W3C//DTD HTML 4.01 Transitional//EN" "http://www.w3.org/TR/html4/loose.dtd">
+<html>
+<head>
+<meta http-equiv="Content-Type" content="text/html; charset=UTF-8">
+<title>Group Check In Confirmation</title>
+</head>
+<body>
+<h2>Group Check In:</h2>
+
+<table>
+<tr>
+<th>Reservation</th>
+<th>Passenger</th>
+<th>Status</th>
+</tr>
+<c:forEach items="${results}" var="result">
+<tr>
+<td>${result.id}</td>
+<td>${result.reservation.passenger.firstName} ${result.reservation.passenger.lastName}</td>
+<td>${result.status}</td>
+</tr>
+</c:forEach>
+</table>
+
+<c:url var="boardingPasses" value="groupBoardingPasses">
+<c:forEach items="${results}" var="result">
+<c:if test="${result.status != 'NOT_FOUND'}"><c:param name="reservationId" value="${result.id}"/></c:if>
+</c:forEach>
+</c:url>
+<a href="${boardingPasses}">Print boarding passes</a>
+
+</body>
+</html>
@@ -0,0 +1,16 @@
+<%@ page language="java" contentType="text/html; charset=UTF-8"
+    pageEncoding="UTF-8"%>
+<!DOCTYPE html PUBLIC "-//W3C//DTD HTML 4.01 Transitional//EN" "http://www.w3.org/TR/html4/loose.dtd">
+<html>
+<head>
+<meta http-equiv="Content-Type" content="text/html; charset=UTF-8">
+<title>Check In Unavailable</title>
+</head>
+<body>
+
+Check in is temporarily unavailable. Please try again in a few minutes or proceed to the check in desk.<br/>
+
+<a href="showStartCheckin">Start Over</a>
+
+</body>
+</html>
@@ -0,0 +1,16 @@
+<%@ page language="java" contentType="text/html; charset=ISO-8859-1"
+    pageEncoding="ISO-8859-1"%>
+<!DOCTYPE html>
+<html>
+<head>
+<meta charset="ISO-8859-1">
+<title>Start Group Check In</title>
+</head>
+<body>
+<h2>Start Group Checkin:</h2>
+<form action="startGroupCheckIn" method="post">
+	Enter the reservation IDs separated by commas: <input type="text" name="reservationIds" />
+	<input type="submit" value="Start Checkin" />
+</form>
+</body>
+</html>
@@ -0,0 +1,48 @@
+package com.demiglace.flightcheckin.boardingpass;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.demiglace.integration.dto.Reservation;
+
+/**
+ * Boarding passes per second, with one worker and with one worker per core.
+ * Run with: mvn test -Dtest=BoardingPassBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BoardingPassBenchmark {
+	private static final int PASSES = 5000;
+
+	@Test
+	void passesPerSecondPerCore() throws Exception {
+		int cores = Runtime.getRuntime().availableProcessors();
+		run(1);
+		if (cores > 1) {
+			run(cores);
+		}
+	}
+
+	private void run(int workers) throws Exception {
+		BoardingPassServiceImpl service = BoardingPassServiceTests.service(workers, PASSES);
+		Reservation reservation = BoardingPassServiceImpl.sampleReservation();
+		try {
+			long start = System.nanoTime();
+			List<CompletableFuture<byte[]>> passes = new ArrayList<>(PASSES);
+			for (int i = 0; i < PASSES; i++) {
+				passes.add(service.generatePdf(reservation));
+			}
+			for (CompletableFuture<byte[]> pass : passes) {
+				pass.get();
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.printf("%2d workers %6d passes %6.2f s %8.0f passes/s %8.0f passes/s per core%n", workers,
+					PASSES, seconds, PASSES / seconds, PASSES / seconds / workers);
+		} finally {
+			service.shutdown();
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.demiglace.flightcheckin.boardingpass;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.demiglace.integration.dto.Reservation;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+
+class BoardingPassServiceTests {
+	private BoardingPassServiceImpl service;
+
+	@AfterEach
+	void shutdown() {
+		service.shutdown();
+	}
+
+	@Test
+	void testPdfHasThePassengerAndFlight() throws Exception {
+		service = service(2, 10);
+		byte[] pdf = service.generatePdf(BoardingPassServiceImpl.sampleReservation()).get();
+		PdfReader reader = new PdfReader(pdf);
+		assertEquals(1, reader.getNumberOfPages());
+		String text = PdfTextExtractor.getTextFromPage(reader, 1);
+		assertTrue(text.contains("Doe / John"), text);
+		assertTrue(text.contains("AA1"), text);
+	}
+
+	@Test
+	void testGroupPdfHasAPagePerPassenger() throws Exception {
+		service = service(2, 10);
+		Reservation reservation = BoardingPassServiceImpl.sampleReservation();
+		byte[] pdf = service.generateGroupPdf(Arrays.asList(reservation, reservation, reservation)).get();
+		assertEquals(3, new PdfReader(pdf).getNumberOfPages());
+	}
+
+	@Test
+	void testBarcodeIsAPng() throws Exception {
+		service = service(2, 10);
+		byte[] png = service.generateBarcode(BoardingPassServiceImpl.sampleReservation()).get();
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+		assertNotNull(image);
+		assertTrue(image.getWidth() > image.getHeight());
+	}
+
+	@Test
+	void testFullQueueRejectsInsteadOfPilingUp() throws Exception {
+		service = service(1, 1);
+		List<CompletableFuture<byte[]>> passes = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			passes.add(service.generatePdf(BoardingPassServiceImpl.sampleReservation()));
+		}
+		int rejected = 0;
+		for (CompletableFuture<byte[]> pass : passes) {
+			try {
+				pass.get();
+			} catch (ExecutionException e) {
+				assertTrue(e.getCause() instanceof RejectedExecutionException);
+				rejected++;
+			}
+		}
+		assertTrue(rejected > 0);
+	}
+
+	static BoardingPassServiceImpl service(int workers, int queueCapacity) throws Exception {
+		BoardingPassServiceImpl service = new BoardingPassServiceImpl();
+		setField(service, "WORKERS", workers);
+		setField(service, "QUEUE_CAPACITY", queueCapacity);
+		service.init();
+		return service;
+	}
+
+	private static void setField(Object target, String name, Object value) throws Exception {
+		java.lang.reflect.Field field = target.getClass().getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(target, value);
+	}
+}
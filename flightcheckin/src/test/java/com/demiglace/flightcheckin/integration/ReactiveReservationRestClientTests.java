@@ -0,0 +1,97 @@
+package com.demiglace.flightcheckin.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.demiglace.integration.dto.Reservation;
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import reactor.core.publisher.Flux;
+
+@SpringBootTest(properties = { "com.demiglace.flightcheckin.reservation.client=reactive",
+		"com.demiglace.flightcheckin.reservation.readtimeoutmillis=300",
+		"com.demiglace.flightcheckin.reservation.retry.waitmillis=10" })
+class ReactiveReservationRestClientTests {
+	private static StubReservationServer server;
+
+	@Autowired
+	ReactiveReservationRestClient restClient;
+
+	@Autowired
+	CircuitBreaker circuitBreaker;
+
+	@Autowired
+	CacheManager cacheManager;
+
+	@DynamicPropertySource
+	static void reservationUrl(DynamicPropertyRegistry registry) throws Exception {
+		server = new StubReservationServer();
+		registry.add("com.demiglace.flightcheckin.reservation.url", server::reservationUrl);
+	}
+
+	@AfterAll
+	static void stopServer() {
+		server.close();
+	}
+
+	@BeforeEach
+	void resetFaults() {
+		server.setLatencyMillis(0);
+		server.setFailureRate(0);
+		circuitBreaker.reset();
+		cacheManager.getCache("reservations").clear();
+	}
+
+	@Test
+	void testWebClientIsUsed() {
+		assertTrue(restClient instanceof WebClientReservationRestClient);
+	}
+
+	@Test
+	void testFindReservationIsCached() {
+		int before = server.requestCount();
+		assertEquals(42L, restClient.findReservation(42L).block().getId());
+		assertEquals(42L, restClient.findReservation(42L).block().getId());
+		assertEquals(before + 1, server.requestCount());
+	}
+
+	@Test
+	void testConcurrentLookupsKeepOrder() {
+		server.setLatencyMillis(50);
+		List<Long> ids = Arrays.asList(3L, 1L, 2L);
+		List<Reservation> reservations = Flux.fromIterable(ids).flatMapSequential(restClient::findReservation)
+				.collectList().block();
+		assertEquals(3L, reservations.get(0).getId());
+		assertEquals(1L, reservations.get(1).getId());
+		assertEquals(2L, reservations.get(2).getId());
+	}
+
+	@Test
+	void testUpdateReservation() {
+		ReservationUpdateRequest request = new ReservationUpdateRequest();
+		request.setId(1L);
+		request.setCheckedIn(true);
+		request.setNumberOfBags(2);
+		assertEquals(1L, restClient.updateReservation(request).block().getId());
+	}
+
+	@Test
+	void testFailuresMapToUnavailable() {
+		server.setFailureRate(1.0);
+		assertThrows(ReservationServiceUnavailableException.class, () -> restClient.findReservation(7L).block());
+	}
+}
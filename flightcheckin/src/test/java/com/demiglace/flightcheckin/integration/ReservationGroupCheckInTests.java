@@ -0,0 +1,66 @@
+package com.demiglace.flightcheckin.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.demiglace.integration.dto.ReservationUpdateResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReservationGroupCheckInTests {
+	private static StubReservationServer server;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@DynamicPropertySource
+	static void reservationUrl(DynamicPropertyRegistry registry) throws Exception {
+		server = new StubReservationServer();
+		registry.add("com.demiglace.flightcheckin.reservation.url", server::reservationUrl);
+	}
+
+	@AfterAll
+	static void stopServer() {
+		server.close();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testGroupIsCheckedInWithOneCall() throws Exception {
+		int requests = server.requestCount();
+		MvcResult result = mockMvc.perform(post("/completeGroupCheckIn").param("reservationId", "11", "12")
+				.param("numberOfBags", "1", "0")).andReturn();
+		result = mockMvc.perform(asyncDispatch(result)).andExpect(view().name("groupCheckInConfirmation"))
+				.andExpect(model().attributeExists("results")).andReturn();
+
+		List<ReservationUpdateResult> results = (List<ReservationUpdateResult>) result.getModelAndView().getModel()
+				.get("results");
+		assertEquals(2, results.size());
+		assertEquals(12L, results.get(1).getId());
+		assertEquals(requests + 1, server.requestCount());
+	}
+
+	@Test
+	void testMismatchedBagCountsAreRejected() throws Exception {
+		int requests = server.requestCount();
+		mockMvc.perform(post("/completeGroupCheckIn").param("reservationId", "11", "12").param("numberOfBags", "1"))
+				.andExpect(status().isBadRequest());
+		assertEquals(requests, server.requestCount());
+	}
+}
@@ -0,0 +1,126 @@
+package com.demiglace.flightcheckin.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+@SpringBootTest(properties = { "com.demiglace.flightcheckin.reservation.retry.waitmillis=10",
+		"com.demiglace.flightcheckin.reservation.balancer.healthcheckmillis=3600000" })
+class ReservationInstanceBalancerTests {
+	private static StubReservationServer first;
+	private static StubReservationServer second;
+	private static StubReservationServer third;
+	private static String stopped;
+
+	@Autowired
+	ReservationRestClient restClient;
+
+	@Autowired
+	ReservationInstanceBalancer balancer;
+
+	@Autowired
+	CircuitBreaker circuitBreaker;
+
+	@Autowired
+	CacheManager cacheManager;
+
+	@DynamicPropertySource
+	static void reservationUrls(DynamicPropertyRegistry registry) throws Exception {
+		first = new StubReservationServer();
+		second = new StubReservationServer();
+		third = new StubReservationServer();
+		// an instance that is down from the start
+		try (StubReservationServer down = new StubReservationServer()) {
+			stopped = down.reservationUrl();
+		}
+		registry.add("com.demiglace.flightcheckin.reservation.instances", () -> first.reservationUrl() + ","
+				+ second.reservationUrl() + "," + third.reservationUrl() + "," + stopped);
+	}
+
+	@AfterAll
+	static void stopServers() {
+		first.close();
+		second.close();
+		third.close();
+	}
+
+	@BeforeEach
+	void resetFaults() {
+		first.setFailureRate(0);
+		second.setFailureRate(0);
+		third.setFailureRate(0);
+		circuitBreaker.reset();
+		cacheManager.getCache("reservations").clear();
+		// the same choices on every run
+		Random random = new Random(42);
+		ReflectionTestUtils.setField(balancer, "random", (Supplier<Random>) () -> random);
+		balancer.checkInstances();
+	}
+
+	@Test
+	void testHealthCheckTakesStoppedInstanceOut() {
+		assertFalse(instance(stopped).isHealthy());
+		assertTrue(instance(first.reservationUrl()).isHealthy());
+		for (long id = 1; id <= 30; id++) {
+			assertEquals(id, restClient.findReservation(id).getId());
+		}
+	}
+
+	@Test
+	void testCallsAreSpreadOverInstances() {
+		int[] before = { first.requestCount(), second.requestCount(), third.requestCount() };
+		for (long id = 1; id <= 300; id++) {
+			restClient.findReservation(id);
+		}
+		assertTrue(first.requestCount() - before[0] > 50);
+		assertTrue(second.requestCount() - before[1] > 50);
+		assertTrue(third.requestCount() - before[2] > 50);
+	}
+
+	@Test
+	void testFailingInstanceIsTakenOutOfRotation() {
+		third.setFailureRate(1.0);
+		int before = third.requestCount();
+		for (long id = 1; id <= 100; id++) {
+			assertEquals(id, restClient.findReservation(id).getId());
+		}
+		// a retry goes to another instance, the failures in a row took it out and nothing more reached it
+		assertFalse(instance(third.reservationUrl()).isHealthy());
+		assertEquals(3, third.requestCount() - before);
+		int failed = third.requestCount();
+		restClient.findReservation(101L);
+		assertEquals(failed, third.requestCount());
+	}
+
+	@Test
+	void testRetryChoosesAnInstanceNotTriedYet() {
+		Set<ReservationInstance> tried = new HashSet<>();
+		for (int i = 0; i < 3; i++) {
+			balancer.choose(tried).release();
+		}
+		// the three healthy instances, each once
+		assertEquals(3, tried.size());
+		assertFalse(tried.contains(instance(stopped)));
+	}
+
+	private ReservationInstance instance(String url) {
+		return balancer.getInstances().stream().filter(instance -> instance.getUrl().equals(url)).findFirst().get();
+	}
+}
@@ -0,0 +1,127 @@
+package com.demiglace.flightcheckin.integration;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.demiglace.flightcheckin.journal.CheckInJournal;
+import com.demiglace.flightcheckin.journal.CheckInJournalReplayer;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+@SpringBootTest(properties = { "com.demiglace.flightcheckin.reservation.retry.waitmillis=10",
+		"com.demiglace.flightcheckin.journal.replaydelaymillis=3600000" })
+@AutoConfigureMockMvc
+class ReservationOutageCheckInTests {
+	private static StubReservationServer server;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	CheckInJournal checkInJournal;
+
+	@Autowired
+	CheckInJournalReplayer replayer;
+
+	@Autowired
+	CircuitBreaker circuitBreaker;
+
+	@DynamicPropertySource
+	static void reservationUrl(DynamicPropertyRegistry registry) throws Exception {
+		server = new StubReservationServer();
+		File journal = new File(Files.createTempDirectory("checkin-journal").toFile(), "checkin.journal");
+		registry.add("com.demiglace.flightcheckin.reservation.url", server::reservationUrl);
+		registry.add("com.demiglace.flightcheckin.journal.path", journal::getPath);
+	}
+
+	@AfterAll
+	static void stopServer() {
+		server.close();
+	}
+
+	@Test
+	void testCheckInIsJournaledDuringOutageAndReplayedLater() throws Exception {
+		server.setFailureRate(1.0);
+		completeCheckIn(5L);
+		assertTrue(checkInJournal.hasPending(5L));
+
+		// still down: nothing is lost, the check-in stays journaled
+		replayer.replayJournal();
+		assertTrue(checkInJournal.hasPending(5L));
+
+		server.setFailureRate(0);
+		circuitBreaker.reset();
+		int before = server.requestCount();
+		replayer.replayJournal();
+		assertFalse(checkInJournal.hasPending(5L));
+		assertEquals(before + 1, server.requestCount());
+	}
+
+	@Test
+	void testGroupCheckInIsJournaledDuringOutage() throws Exception {
+		server.setFailureRate(1.0);
+		completeGroupCheckIn("21", "22");
+		assertTrue(checkInJournal.hasPending(21L));
+		assertTrue(checkInJournal.hasPending(22L));
+
+		server.setFailureRate(0);
+		circuitBreaker.reset();
+		replayer.replayJournal();
+		assertFalse(checkInJournal.hasPending(21L));
+		assertFalse(checkInJournal.hasPending(22L));
+	}
+
+	@Test
+	void testGroupCheckInGoesBehindAPendingMember() throws Exception {
+		server.setFailureRate(1.0);
+		completeCheckIn(31L);
+
+		// flightreservation is back, but 31's older check-in hasn't been replayed yet
+		server.setFailureRate(0);
+		circuitBreaker.reset();
+		int before = server.requestCount();
+		completeGroupCheckIn("31", "32");
+		assertEquals(before, server.requestCount());
+		assertTrue(checkInJournal.hasPending(32L));
+
+		replayer.replayJournal();
+		assertFalse(checkInJournal.hasPending(31L));
+		assertFalse(checkInJournal.hasPending(32L));
+		assertEquals(before + 3, server.requestCount());
+	}
+
+	private void completeGroupCheckIn(String... reservationIds) throws Exception {
+		String[] bags = new String[reservationIds.length];
+		Arrays.fill(bags, "1");
+		MvcResult result = mockMvc.perform(post("/completeGroupCheckIn").param("reservationId", reservationIds)
+				.param("numberOfBags", bags)).andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(view().name("groupCheckInConfirmation"))
+				.andExpect(model().attribute("results", hasSize(reservationIds.length)));
+	}
+
+	private void completeCheckIn(Long reservationId) throws Exception {
+		MvcResult result = mockMvc.perform(post("/completeCheckIn").param("reservationId", reservationId.toString())
+				.param("numberOfBags", "1")).andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(view().name("checkInConfirmation"));
+	}
+}
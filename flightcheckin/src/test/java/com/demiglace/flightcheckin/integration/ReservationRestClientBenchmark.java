@@ -0,0 +1,67 @@
+package com.demiglace.flightcheckin.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.function.LongFunction;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+
+import com.demiglace.flightcheckin.config.RestClientConfig;
+import com.demiglace.integration.dto.Reservation;
+
+/**
+ * Compares a RestTemplate created per call with the shared pooled one against a local stub.
+ * Run with: mvn test -Dtest=ReservationRestClientBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReservationRestClientBenchmark {
+	private static final int WARMUP_CALLS = 1000;
+	private static final int CALLS = 5000;
+
+	@Test
+	void perCallVersusPooledRestTemplate() throws Exception {
+		try (StubReservationServer server = new StubReservationServer()) {
+			String url = server.reservationUrl();
+			RestTemplate pooled = pooledRestTemplate();
+
+			LongFunction<Reservation> perCall = id -> new RestTemplate().getForObject(url + id, Reservation.class);
+			LongFunction<Reservation> shared = id -> pooled.getForObject(url + id, Reservation.class);
+
+			run("new RestTemplate() per call", perCall, WARMUP_CALLS);
+			run("shared pooled RestTemplate", shared, WARMUP_CALLS);
+			long perCallNanos = run("new RestTemplate() per call", perCall, CALLS);
+			long sharedNanos = run("shared pooled RestTemplate", shared, CALLS);
+			System.out.printf("per call overhead removed: %.1f us%n", (perCallNanos - sharedNanos) / 1000.0 / CALLS);
+		}
+	}
+
+	private long run(String name, LongFunction<Reservation> call, int calls) {
+		long start = System.nanoTime();
+		for (long id = 1; id <= calls; id++) {
+			assertEquals(id, call.apply(id).getId());
+		}
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("%-30s %6d calls %8.1f us/call%n", name, calls, elapsed / 1000.0 / calls);
+		return elapsed;
+	}
+
+	private RestTemplate pooledRestTemplate() throws Exception {
+		RestClientConfig config = new RestClientConfig();
+		setField(config, "MAX_TOTAL", 100);
+		setField(config, "MAX_PER_ROUTE", 100);
+		setField(config, "CONNECT_TIMEOUT_MILLIS", 2000);
+		setField(config, "READ_TIMEOUT_MILLIS", 5000);
+		setField(config, "KEEP_ALIVE_MILLIS", 30000L);
+		return config.reservationRestTemplate(new RestTemplateBuilder(),
+				config.reservationHttpClient(config.reservationConnectionManager()));
+	}
+
+	private void setField(Object target, String name, Object value) throws Exception {
+		java.lang.reflect.Field field = target.getClass().getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(target, value);
+	}
+}
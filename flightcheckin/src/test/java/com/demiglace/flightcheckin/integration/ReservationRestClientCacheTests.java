@@ -0,0 +1,102 @@
+package com.demiglace.flightcheckin.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.demiglace.integration.dto.Reservation;
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+import com.demiglace.integration.dto.ReservationUpdateResult;
+
+@SpringBootTest
+class ReservationRestClientCacheTests {
+	private static StubReservationServer server;
+
+	@Autowired
+	ReservationRestClient restClient;
+
+	@DynamicPropertySource
+	static void reservationUrl(DynamicPropertyRegistry registry) throws Exception {
+		server = new StubReservationServer();
+		registry.add("com.demiglace.flightcheckin.reservation.url", server::reservationUrl);
+	}
+
+	@AfterAll
+	static void stopServer() {
+		server.close();
+	}
+
+	@Test
+	void testRepeatedLookupsAreServedFromCache() {
+		int requests = server.requestCount();
+		Reservation reservation = restClient.findReservation(7L);
+		assertSame(reservation, restClient.findReservation(7L));
+		assertEquals(requests + 1, server.requestCount());
+	}
+
+	@Test
+	void testUpdateWritesThrough() {
+		restClient.findReservation(1L);
+		ReservationUpdateRequest request = new ReservationUpdateRequest();
+		request.setId(1L);
+		request.setCheckedIn(true);
+		Reservation updated = restClient.updateReservation(request);
+
+		int requests = server.requestCount();
+		assertSame(updated, restClient.findReservation(1L));
+		assertEquals(requests, server.requestCount());
+	}
+
+	@Test
+	void testGroupUpdateWritesThroughInOneCall() {
+		int requests = server.requestCount();
+		List<ReservationUpdateResult> results = restClient.updateReservations(
+				Arrays.asList(updateRequest(31L, 2), updateRequest(32L, 1)));
+		assertEquals(requests + 1, server.requestCount());
+		assertEquals(Arrays.asList(31L, 32L),
+				results.stream().map(ReservationUpdateResult::getId).collect(Collectors.toList()));
+		assertEquals("UPDATED", results.get(0).getStatus());
+
+		assertSame(results.get(1).getReservation(), restClient.findReservation(32L));
+		assertEquals(requests + 1, server.requestCount());
+	}
+
+	@Test
+	void testConcurrentLookupsShareOneCall() throws Exception {
+		server.setLatencyMillis(200);
+		int requests = server.requestCount();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<Reservation>> lookups = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			lookups.add(executor.submit(() -> restClient.findReservation(21L)));
+		}
+		for (Future<Reservation> lookup : lookups) {
+			assertEquals(21L, lookup.get().getId());
+		}
+		executor.shutdown();
+		server.setLatencyMillis(0);
+		assertEquals(requests + 1, server.requestCount());
+	}
+
+	private static ReservationUpdateRequest updateRequest(Long id, int numberOfBags) {
+		ReservationUpdateRequest request = new ReservationUpdateRequest();
+		request.setId(id);
+		request.setNumberOfBags(numberOfBags);
+		request.setCheckedIn(true);
+		return request;
+	}
+}
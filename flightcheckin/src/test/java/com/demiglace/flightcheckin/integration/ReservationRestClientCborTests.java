@@ -0,0 +1,50 @@
+package com.demiglace.flightcheckin.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.demiglace.integration.dto.Reservation;
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+
+@SpringBootTest(properties = "com.demiglace.flightcheckin.reservation.wireformat=cbor")
+class ReservationRestClientCborTests {
+	private static StubReservationServer server;
+
+	@Autowired
+	ReservationRestClient restClient;
+
+	@DynamicPropertySource
+	static void reservationUrl(DynamicPropertyRegistry registry) throws Exception {
+		server = new StubReservationServer();
+		registry.add("com.demiglace.flightcheckin.reservation.url", server::reservationUrl);
+	}
+
+	@AfterAll
+	static void stopServer() {
+		server.close();
+	}
+
+	@Test
+	void testFindReservationOverCbor() {
+		Reservation reservation = restClient.findReservation(42L);
+		assertEquals(42L, reservation.getId());
+		assertEquals("AA1", reservation.getFlight().getFlightNumber());
+		assertEquals("Doe", reservation.getPassenger().getLastName());
+	}
+
+	@Test
+	void testUpdateReservationIsSentAsCbor() {
+		ReservationUpdateRequest request = new ReservationUpdateRequest();
+		request.setId(1L);
+		request.setCheckedIn(true);
+		request.setNumberOfBags(2);
+		assertEquals(1L, restClient.updateReservation(request).getId());
+		assertEquals("application/cbor", server.lastContentType());
+	}
+}
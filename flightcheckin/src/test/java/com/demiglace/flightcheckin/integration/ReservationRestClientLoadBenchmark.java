@@ -0,0 +1,107 @@
+package com.demiglace.flightcheckin.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.demiglace.flightcheckin.config.RestClientConfig;
+import com.demiglace.integration.dto.Reservation;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Compares the thread cost of the blocking and the reactive client when flightreservation is slow.
+ * Run with: mvn test -Dtest=ReservationRestClientLoadBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReservationRestClientLoadBenchmark {
+	private static final int CONCURRENT_CALLS = 1000;
+	private static final int LATENCY_MILLIS = 200;
+	// tomcat's default server.tomcat.threads.max, each blocked call holds one of them
+	private static final int REQUEST_THREADS = 200;
+
+	private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+	@Test
+	void blockingVersusReactiveUnderLatency() throws Exception {
+		try (StubReservationServer server = new StubReservationServer()) {
+			server.setLatencyMillis(LATENCY_MILLIS);
+			String url = server.reservationUrl();
+			RestClientConfig config = config();
+			RestTemplate restTemplate = config.reservationRestTemplate(new RestTemplateBuilder(),
+					config.reservationHttpClient(config.reservationConnectionManager()));
+			WebClient webClient = config.reservationWebClient(WebClient.builder());
+
+			blocking(restTemplate, url, REQUEST_THREADS);
+			reactive(webClient, url, REQUEST_THREADS);
+			blocking(restTemplate, url, CONCURRENT_CALLS);
+			reactive(webClient, url, CONCURRENT_CALLS);
+		}
+	}
+
+	private void blocking(RestTemplate restTemplate, String url, int calls) throws Exception {
+		threads.resetPeakThreadCount();
+		int baseline = threads.getThreadCount();
+		ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+		long start = System.nanoTime();
+		try {
+			List<Future<Reservation>> results = new ArrayList<>(calls);
+			for (long id = 1; id <= calls; id++) {
+				long reservationId = id;
+				results.add(requestThreads
+						.submit(() -> restTemplate.getForObject(url + reservationId, Reservation.class)));
+			}
+			for (Future<Reservation> result : results) {
+				result.get();
+			}
+		} finally {
+			requestThreads.shutdownNow();
+		}
+		report("blocking RestTemplate", calls, start, threads.getPeakThreadCount() - baseline);
+	}
+
+	private void reactive(WebClient webClient, String url, int calls) {
+		threads.resetPeakThreadCount();
+		int baseline = threads.getThreadCount();
+		long start = System.nanoTime();
+		List<Reservation> results = Flux.range(1, calls)
+				.flatMap(id -> webClient.get().uri(url + id).retrieve().bodyToMono(Reservation.class), calls)
+				.collectList().block();
+		assertEquals(calls, results.size());
+		report("reactive WebClient", calls, start, threads.getPeakThreadCount() - baseline);
+	}
+
+	private void report(String name, int calls, long start, int extraThreads) {
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%-22s %5d calls %6.2f s %8.0f calls/s %5d extra threads%n", name, calls, seconds,
+				calls / seconds, extraThreads);
+	}
+
+	private RestClientConfig config() throws Exception {
+		RestClientConfig config = new RestClientConfig();
+		setField(config, "MAX_TOTAL", CONCURRENT_CALLS);
+		setField(config, "MAX_PER_ROUTE", CONCURRENT_CALLS);
+		setField(config, "CONNECT_TIMEOUT_MILLIS", 2000);
+		setField(config, "READ_TIMEOUT_MILLIS", 5000);
+		setField(config, "KEEP_ALIVE_MILLIS", 30000L);
+		return config;
+	}
+
+	private void setField(Object target, String name, Object value) throws Exception {
+		java.lang.reflect.Field field = target.getClass().getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(target, value);
+	}
+}
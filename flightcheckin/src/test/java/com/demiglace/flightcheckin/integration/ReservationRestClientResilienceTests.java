@@ -0,0 +1,111 @@
+package com.demiglace.flightcheckin.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.HttpServerErrorException;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+@SpringBootTest(properties = { "com.demiglace.flightcheckin.reservation.readtimeoutmillis=300",
+		"com.demiglace.flightcheckin.reservation.retry.waitmillis=10",
+		"com.demiglace.flightcheckin.reservation.circuitbreaker.windowsize=10",
+		"com.demiglace.flightcheckin.reservation.circuitbreaker.openmillis=60000" })
+class ReservationRestClientResilienceTests {
+	private static StubReservationServer server;
+
+	@Autowired
+	ReservationRestClient restClient;
+
+	@Autowired
+	CircuitBreaker circuitBreaker;
+
+	@Autowired
+	CacheManager cacheManager;
+
+	@Autowired
+	RetryBudget retryBudget;
+
+	@DynamicPropertySource
+	static void reservationUrl(DynamicPropertyRegistry registry) throws Exception {
+		server = new StubReservationServer();
+		registry.add("com.demiglace.flightcheckin.reservation.url", server::reservationUrl);
+	}
+
+	@AfterAll
+	static void stopServer() {
+		server.close();
+	}
+
+	@BeforeEach
+	void resetFaults() {
+		server.setLatencyMillis(0);
+		server.setFailureRate(0);
+		server.setFailureStatus(503);
+		circuitBreaker.reset();
+		// refill the retry budget other tests have spent
+		while (retryBudget.getAvailableTokens() < 10) {
+			retryBudget.refundRetry();
+		}
+		cacheManager.getCache("reservations").clear();
+	}
+
+	@Test
+	void testFindReservation() {
+		assertEquals(42L, restClient.findReservation(42L).getId());
+	}
+
+	@Test
+	void testCircuitOpensWhenReservationServiceFails() {
+		server.setFailureRate(1.0);
+		for (int i = 0; i < 10; i++) {
+			assertThrows(ReservationServiceUnavailableException.class, () -> restClient.findReservation(1L));
+		}
+		assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+		// once open, calls fail fast without reaching flightreservation
+		int requests = server.requestCount();
+		assertThrows(ReservationServiceUnavailableException.class, () -> restClient.findReservation(1L));
+		assertEquals(requests, server.requestCount());
+	}
+
+	@Test
+	void testUnavailableIsRetriedAndOnlyRetriesSpendTheBudget() {
+		server.setFailureRate(1.0);
+		int requests = server.requestCount();
+		assertThrows(ReservationServiceUnavailableException.class, () -> restClient.findReservation(1L));
+
+		// three attempts, two retries; the failure of the last attempt is not followed by a retry
+		assertEquals(requests + 3, server.requestCount());
+		assertEquals(8, retryBudget.getAvailableTokens(), 1e-9);
+	}
+
+	@Test
+	void testServerErrorIsNotRetried() {
+		server.setFailureRate(1.0);
+		server.setFailureStatus(500);
+		int requests = server.requestCount();
+		HttpServerErrorException e = assertThrows(HttpServerErrorException.class,
+				() -> restClient.findReservation(1L));
+		assertEquals(500, e.getRawStatusCode());
+		assertEquals(requests + 1, server.requestCount());
+		assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+	}
+
+	@Test
+	void testSlowReservationServiceTimesOut() {
+		server.setLatencyMillis(2000);
+		long start = System.currentTimeMillis();
+		assertThrows(ReservationServiceUnavailableException.class, () -> restClient.findReservation(1L));
+		assertTrue(System.currentTimeMillis() - start < 2000);
+	}
+}
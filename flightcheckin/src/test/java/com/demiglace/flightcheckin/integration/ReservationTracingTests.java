@@ -0,0 +1,47 @@
+package com.demiglace.flightcheckin.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReservationTracingTests {
+	private static final String TRACE_ID = "463ac35c9f6413ad";
+
+	private static StubReservationServer server;
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@DynamicPropertySource
+	static void reservationUrl(DynamicPropertyRegistry registry) throws Exception {
+		server = new StubReservationServer();
+		registry.add("com.demiglace.flightcheckin.reservation.url", server::reservationUrl);
+	}
+
+	@AfterAll
+	static void stopServer() {
+		server.close();
+	}
+
+	@Test
+	void testTraceIsPropagatedToFlightreservation() throws Exception {
+		MvcResult result = mockMvc.perform(get("/startCheckIn").param("reservationId", "77")
+				.header("X-B3-TraceId", TRACE_ID).header("X-B3-SpanId", TRACE_ID).header("X-B3-Sampled", "1"))
+				.andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(view().name("displayReservationDetails"));
+		assertEquals(TRACE_ID, server.lastTraceId());
+	}
+}
@@ -0,0 +1,79 @@
+package com.demiglace.flightcheckin.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.demiglace.integration.dto.Flight;
+import com.demiglace.integration.dto.Passenger;
+import com.demiglace.integration.dto.Reservation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Payload size and encode/decode cost of a reservation as json and as cbor.
+ * Run with: mvn test -Dtest=ReservationWireFormatBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReservationWireFormatBenchmark {
+	private static final int WARMUP_ROUNDS = 50000;
+	private static final int ROUNDS = 200000;
+
+	@Test
+	void jsonVersusCbor() throws Exception {
+		Reservation reservation = reservation();
+		ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+		ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+
+		run("json", json, reservation, WARMUP_ROUNDS);
+		run("cbor", cbor, reservation, WARMUP_ROUNDS);
+		run("json", json, reservation, ROUNDS);
+		run("cbor", cbor, reservation, ROUNDS);
+	}
+
+	private void run(String name, ObjectMapper mapper, Reservation reservation, int rounds) throws Exception {
+		byte[] payload = mapper.writeValueAsBytes(reservation);
+		long start = System.nanoTime();
+		for (int i = 0; i < rounds; i++) {
+			payload = mapper.writeValueAsBytes(reservation);
+		}
+		long encodeNanos = System.nanoTime() - start;
+		Reservation decoded = null;
+		start = System.nanoTime();
+		for (int i = 0; i < rounds; i++) {
+			decoded = mapper.readValue(payload, Reservation.class);
+		}
+		long decodeNanos = System.nanoTime() - start;
+		assertEquals(reservation.getId(), decoded.getId());
+		System.out.printf("%s %4d bytes  encode %6.0f ns  decode %6.0f ns%n", name, payload.length,
+				(double) encodeNanos / rounds, (double) decodeNanos / rounds);
+	}
+
+	private Reservation reservation() {
+		Passenger passenger = new Passenger();
+		passenger.setId(1L);
+		passenger.setFirstName("John");
+		passenger.setLastName("Doe");
+		passenger.setEmail("john@doe.com");
+		passenger.setPhone("123");
+		Flight flight = new Flight();
+		flight.setId(1L);
+		flight.setFlightNumber("AA1");
+		flight.setOperatingAirlines("American Airlines");
+		flight.setDepartureCity("AUS");
+		flight.setArrivalCity("NYC");
+		flight.setDateOfDeparture(new Date());
+		flight.setEstimatedDepartureTime(new Timestamp(System.currentTimeMillis()));
+		Reservation reservation = new Reservation();
+		reservation.setId(42L);
+		reservation.setCheckedIn(false);
+		reservation.setNumberOfBags(0);
+		reservation.setPassenger(passenger);
+		reservation.setFlight(flight);
+		return reservation;
+	}
+}
@@ -0,0 +1,122 @@
+package com.demiglace.flightcheckin.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class SingleFlightTests {
+	private final SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+
+	@Test
+	void testConcurrentCallsShareOneCall() throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(10);
+		List<Future<String>> results = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			results.add(executor.submit(() -> {
+				start.await();
+				return singleFlight.execute(1L, this::slowCall);
+			}));
+		}
+		start.countDown();
+		for (Future<String> result : results) {
+			assertEquals("reservation", result.get(5, TimeUnit.SECONDS));
+		}
+		executor.shutdown();
+		assertEquals(1, upstreamCalls.get());
+		assertEquals(9, singleFlight.getCoalescedCount());
+	}
+
+	@Test
+	void testFailureIsSharedAndNotRemembered() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<?> leader = executor.submit(() -> singleFlight.execute(1L, () -> {
+			sleep(200);
+			throw new IllegalStateException("down");
+		}));
+		sleep(50);
+		assertThrows(IllegalStateException.class, () -> singleFlight.execute(1L, this::slowCall));
+		assertThrows(ExecutionException.class, leader::get);
+		executor.shutdown();
+		// the next call after the failed one goes upstream again
+		assertEquals("reservation", singleFlight.execute(1L, this::slowCall));
+		assertEquals(1, upstreamCalls.get());
+	}
+
+	@Test
+	void testReactiveCallsShareOneCall() {
+		List<String> results = Flux.range(0, 10)
+				.flatMap(i -> singleFlight.executeReactive(1L,
+						() -> Mono.fromCallable(upstreamCalls::incrementAndGet).delayElement(Duration.ofMillis(200))
+								.map(count -> "reservation")))
+				.collectList().block();
+		assertEquals(10, results.size());
+		assertEquals(1, upstreamCalls.get());
+		assertEquals(9, singleFlight.getCoalescedCount());
+	}
+
+	@Test
+	void testReactiveCallOutlivesTheFirstSubscriberLeaving() throws Exception {
+		AtomicBoolean cancelled = new AtomicBoolean();
+		Mono<String> call = Mono.delay(Duration.ofMillis(200)).map(tick -> "reservation")
+				.doOnCancel(() -> cancelled.set(true));
+		Disposable first = singleFlight.executeReactive(1L, () -> call).subscribe();
+		CompletableFuture<String> second = singleFlight.executeReactive(1L, () -> call).toFuture();
+		first.dispose();
+
+		assertEquals("reservation", second.get(5, TimeUnit.SECONDS));
+		assertFalse(cancelled.get());
+		assertEquals(1, singleFlight.getCallCount());
+	}
+
+	@Test
+	void testReactiveCallIsCancelledWhenTheLastSubscriberLeaves() {
+		AtomicBoolean cancelled = new AtomicBoolean();
+		Mono<String> call = Mono.<String>never().doOnCancel(() -> cancelled.set(true));
+		Disposable first = singleFlight.executeReactive(1L, () -> call).subscribe();
+		Disposable second = singleFlight.executeReactive(1L, () -> call).subscribe();
+		first.dispose();
+		assertFalse(cancelled.get());
+		second.dispose();
+		assertTrue(cancelled.get());
+
+		// the cancelled flight is gone, the next lookup makes a call of its own
+		assertEquals("reservation", singleFlight.executeReactive(1L, () -> Mono.just("reservation")).block());
+		assertEquals(2, singleFlight.getCallCount());
+	}
+
+	private String slowCall() {
+		upstreamCalls.incrementAndGet();
+		sleep(200);
+		return "reservation";
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
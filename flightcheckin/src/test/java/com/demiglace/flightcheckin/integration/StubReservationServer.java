@@ -0,0 +1,159 @@
+package com.demiglace.flightcheckin.integration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for flightreservation's /reservations endpoints, with injectable latency and errors.
+ */
+class StubReservationServer implements AutoCloseable {
+	private static final String RESERVATION_JSON = "{\"id\":%s,\"checkedIn\":false,\"numberOfBags\":0,"
+			+ "\"passenger\":{\"id\":1,\"firstName\":\"John\",\"lastName\":\"Doe\",\"email\":\"john@doe.com\",\"phone\":\"123\"},"
+			+ "\"flight\":{\"id\":1,\"flightNumber\":\"AA1\",\"operatingAirlines\":\"American Airlines\","
+			+ "\"departureCity\":\"AUS\",\"arrivalCity\":\"NYC\",\"dateOfDeparture\":\"2022-02-05\","
+			+ "\"estimatedDepartureTime\":\"2022-02-05T03:14:07.000+00:00\"}}";
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	// delayed answers wait here instead of holding one of the handler threads
+	private final ScheduledExecutorService delayer = Executors.newSingleThreadScheduledExecutor();
+	private final AtomicInteger requests = new AtomicInteger();
+	private final ObjectMapper jsonMapper = new ObjectMapper();
+	private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+	private volatile String lastContentType;
+	private volatile String lastTraceId;
+	private volatile long latencyMillis;
+	private volatile double failureRate;
+	private volatile int failureStatus = 503;
+
+	StubReservationServer() throws IOException {
+		// without it the headers and the body go out in two packets and every call waits for a delayed ack
+		System.setProperty("sun.net.httpserver.nodelay", "true");
+		// keep-alive connections beyond the default 200 idle ones would be closed under the load benchmark
+		System.setProperty("sun.net.httpserver.maxIdleConnections", "2000");
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+		executor = Executors.newFixedThreadPool(64);
+		server.setExecutor(executor);
+		server.createContext("/flightreservation/reservations", this::handle);
+		server.start();
+	}
+
+	String reservationUrl() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + "/flightreservation/reservations/";
+	}
+
+	int requestCount() {
+		return requests.get();
+	}
+
+	// content type of the last request body sent to the stub
+	String lastContentType() {
+		return lastContentType;
+	}
+
+	// b3 trace id the last request was sent with
+	String lastTraceId() {
+		return lastTraceId;
+	}
+
+	void setLatencyMillis(long latencyMillis) {
+		this.latencyMillis = latencyMillis;
+	}
+
+	// fraction of the requests answered with the failure status, a 503 unless set
+	void setFailureRate(double failureRate) {
+		this.failureRate = failureRate;
+	}
+
+	void setFailureStatus(int failureStatus) {
+		this.failureStatus = failureStatus;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		requests.incrementAndGet();
+		lastTraceId = exchange.getRequestHeaders().getFirst("X-B3-TraceId");
+		if (latencyMillis > 0) {
+			delayer.schedule(() -> executor.execute(() -> respond(exchange)), latencyMillis, TimeUnit.MILLISECONDS);
+		} else {
+			respond(exchange);
+		}
+	}
+
+	private void respond(HttpExchange exchange) {
+		try {
+			writeResponse(exchange);
+		} catch (IOException e) {
+			// the client gave up, e.g. on a read timeout
+			exchange.close();
+		}
+	}
+
+	private void writeResponse(HttpExchange exchange) throws IOException {
+		if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+			exchange.sendResponseHeaders(failureStatus, -1);
+			exchange.close();
+			return;
+		}
+		String path = exchange.getRequestURI().getPath();
+		String id = path.substring(path.lastIndexOf('/') + 1);
+		byte[] body;
+		if ("POST".equals(exchange.getRequestMethod())) {
+			lastContentType = exchange.getRequestHeaders().getFirst("Content-Type");
+			JsonNode request;
+			try (InputStream in = exchange.getRequestBody()) {
+				ObjectMapper mapper = lastContentType != null && lastContentType.contains("application/cbor")
+						? cborMapper : jsonMapper;
+				request = mapper.readTree(in);
+			}
+			body = "batch".equals(id) ? batchResults(request) : String.format(RESERVATION_JSON, "1")
+					.getBytes(StandardCharsets.UTF_8);
+		} else {
+			body = String.format(RESERVATION_JSON, id).getBytes(StandardCharsets.UTF_8);
+		}
+		String accept = exchange.getRequestHeaders().getFirst("Accept");
+		if (accept != null && accept.contains("application/cbor")) {
+			body = cborMapper.writeValueAsBytes(jsonMapper.readTree(body));
+			exchange.getResponseHeaders().add("Content-Type", "application/cbor");
+		} else {
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+		}
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	// every reservation of the group is updated, the results keep the order of the requests
+	private byte[] batchResults(JsonNode requests) {
+		StringBuilder results = new StringBuilder("[");
+		for (JsonNode request : requests) {
+			String id = request.get("id").asText();
+			results.append(results.length() > 1 ? "," : "").append("{\"id\":").append(id)
+					.append(",\"status\":\"UPDATED\",\"reservation\":").append(String.format(RESERVATION_JSON, id))
+					.append('}');
+		}
+		return results.append(']').toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+		delayer.shutdownNow();
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,118 @@
+package com.demiglace.flightcheckin.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+
+class MappedCheckInJournalTests {
+	@TempDir
+	File dir;
+
+	@Test
+	void testReplayKeepsTheOrderCheckInsWereAccepted() throws Exception {
+		MappedCheckInJournal journal = open(100);
+		journal.append(checkIn(1L, 1));
+		journal.append(checkIn(2L, 0));
+		journal.append(checkIn(1L, 2));
+		assertTrue(journal.hasPending(1L));
+		assertEquals(3, journal.pendingCount());
+
+		List<String> replayed = new ArrayList<>();
+		assertEquals(3, journal.replay(request -> replayed.add(request.getId() + ":" + request.getNumberOfBags())));
+		assertEquals("[1:1, 2:0, 1:2]", replayed.toString());
+		assertFalse(journal.hasPending(1L));
+		journal.close();
+	}
+
+	@Test
+	void testReplayStopsAndResumesAfterRestart() throws Exception {
+		MappedCheckInJournal journal = open(100);
+		journal.append(checkIn(1L, 1));
+		journal.append(checkIn(2L, 2));
+		journal.append(checkIn(3L, 3));
+		// flightreservation goes down again after the first one
+		assertEquals(1, journal.replay(request -> request.getId() == 1L));
+		journal.close();
+
+		journal = open(100);
+		assertEquals(2, journal.pendingCount());
+		assertFalse(journal.hasPending(1L));
+		List<Long> replayed = new ArrayList<>();
+		assertEquals(2, journal.replay(request -> replayed.add(request.getId())));
+		assertEquals("[2, 3]", replayed.toString());
+		journal.close();
+	}
+
+	@Test
+	void testGroupIsJournaledWholeOrNotAtAll() throws Exception {
+		MappedCheckInJournal journal = open(3);
+		journal.append(checkIn(1L, 1));
+		assertFalse(journal.appendAll(Arrays.asList(checkIn(2L, 1), checkIn(3L, 1), checkIn(4L, 1))));
+		assertEquals(1, journal.pendingCount());
+		assertTrue(journal.appendAll(Arrays.asList(checkIn(2L, 1), checkIn(3L, 1))));
+		journal.close();
+
+		journal = open(3);
+		List<Long> replayed = new ArrayList<>();
+		assertEquals(3, journal.replay(request -> replayed.add(request.getId())));
+		assertEquals("[1, 2, 3]", replayed.toString());
+		journal.close();
+	}
+
+	@Test
+	void testDrainedJournalStartsOver() throws Exception {
+		MappedCheckInJournal journal = open(2);
+		journal.append(checkIn(1L, 1));
+		journal.append(checkIn(2L, 1));
+		assertFalse(journal.append(checkIn(3L, 1)));
+		journal.replay(request -> true);
+		assertTrue(journal.append(checkIn(3L, 1)));
+		journal.close();
+
+		// the records of the first round are not picked up again
+		journal = open(2);
+		assertEquals(1, journal.pendingCount());
+		assertTrue(journal.hasPending(3L));
+		journal.close();
+	}
+
+	@Test
+	void testConcurrentCheckInsShareFsyncs() throws Exception {
+		MappedCheckInJournal journal = open(10000);
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		for (int i = 0; i < 800; i++) {
+			long id = i;
+			executor.execute(() -> journal.append(checkIn(id, 1)));
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+		assertEquals(800, journal.pendingCount());
+		assertTrue(journal.getFlushCount() < 800, "fsyncs: " + journal.getFlushCount());
+		journal.close();
+	}
+
+	private MappedCheckInJournal open(int capacity) throws Exception {
+		return new MappedCheckInJournal(new File(dir, "checkin.journal").getPath(), capacity, 2);
+	}
+
+	private ReservationUpdateRequest checkIn(Long id, int numberOfBags) {
+		ReservationUpdateRequest request = new ReservationUpdateRequest();
+		request.setId(id);
+		request.setCheckedIn(true);
+		request.setNumberOfBags(numberOfBags);
+		return request;
+	}
+}
@@ -4,8 +4,14 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.demiglace.tracing.SpanLoggingConfig;
 
 @SpringBootApplication
+@Import(SpanLoggingConfig.class)
+@EnableScheduling
 public class FlightreservationApplication extends SpringBootServletInitializer {
 
 	@Override
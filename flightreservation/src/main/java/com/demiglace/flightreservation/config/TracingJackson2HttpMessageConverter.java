@@ -0,0 +1,37 @@
+package com.demiglace.flightreservation.config;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Jackson converter that records writing the response body as its own span, so serialization
+ * shows up separately from the controller and the database work in a trace.
+ */
+public class TracingJackson2HttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+	private final Tracer tracer;
+
+	public TracingJackson2HttpMessageConverter(Tracer tracer, ObjectMapper objectMapper,
+			MediaType... supportedMediaTypes) {
+		super(objectMapper, supportedMediaTypes);
+		this.tracer = tracer;
+	}
+
+	@Override
+	protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+		Span span = tracer.nextSpan().name("serialize").tag("content.type",
+				String.valueOf(outputMessage.getHeaders().getContentType())).start();
+		try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+			super.writeInternal(object, type, outputMessage);
+		} finally {
+			span.end();
+		}
+	}
+}
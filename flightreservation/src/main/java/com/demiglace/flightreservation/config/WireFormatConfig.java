@@ -0,0 +1,38 @@
+package com.demiglace.flightreservation.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Lets the /reservations clients ask for cbor with Accept: application/cbor and send it with
+ * Content-Type: application/cbor. Json stays the default for everybody else.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+	@Autowired
+	Tracer tracer;
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		// the json converter keeps boot's ObjectMapper, it only gains a serialization span
+		for (int i = 0; i < converters.size(); i++) {
+			if (converters.get(i) instanceof MappingJackson2HttpMessageConverter) {
+				MappingJackson2HttpMessageConverter json = (MappingJackson2HttpMessageConverter) converters.get(i);
+				converters.set(i, new TracingJackson2HttpMessageConverter(tracer, json.getObjectMapper(),
+						MediaType.APPLICATION_JSON, new MediaType("application", "*+json")));
+			}
+		}
+		// appended after the json converter, so it only wins when cbor is explicitly asked for.
+		// same settings as flightcheckin's RestClientConfig, dates travel as epoch millis
+		converters.add(new TracingJackson2HttpMessageConverter(tracer, Jackson2ObjectMapperBuilder.cbor().build(),
+				MediaType.APPLICATION_CBOR));
+	}
+}
@@ -0,0 +1,59 @@
+package com.demiglace.flightreservation.controllers;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.demiglace.flightreservation.services.ManifestService;
+import com.demiglace.flightreservation.util.ManifestWriter;
+
+@RestController
+public class ManifestRestController {
+	@Autowired
+	ManifestService manifestService;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ManifestRestController.class);
+
+	@GetMapping("/admin/manifests/flights/{flightId}")
+	public ResponseEntity<StreamingResponseBody> flightManifest(@PathVariable("flightId") Long flightId,
+			@RequestParam(value = "format", defaultValue = ManifestWriter.CSV) String format) {
+		LOGGER.info("inside flightManifest() for flight id: {}", flightId);
+		if (!ManifestWriter.isSupported(format)) {
+			return ResponseEntity.badRequest().build();
+		}
+		return stream("manifest-flight-" + flightId + "." + format.toLowerCase(), format,
+				out -> manifestService.exportFlightManifest(flightId, format, out));
+	}
+
+	@GetMapping("/admin/manifests")
+	public ResponseEntity<StreamingResponseBody> dailyManifest(
+			@RequestParam("departureDate") @DateTimeFormat(pattern = "MM-dd-yyyy") Date departureDate,
+			@RequestParam(value = "format", defaultValue = ManifestWriter.CSV) String format) {
+		LOGGER.info("inside dailyManifest() for date: {}", departureDate);
+		if (!ManifestWriter.isSupported(format)) {
+			return ResponseEntity.badRequest().build();
+		}
+		return stream("manifest-" + new SimpleDateFormat("yyyy-MM-dd").format(departureDate) + "." + format.toLowerCase(), format,
+				out -> manifestService.exportDailyManifest(departureDate, format, out));
+	}
+
+	// the body is written on an async thread straight into the response, nothing is buffered here
+	private ResponseEntity<StreamingResponseBody> stream(String fileName, String format, StreamingResponseBody body) {
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(ManifestWriter.contentType(format)))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+				.body(body);
+	}
+}
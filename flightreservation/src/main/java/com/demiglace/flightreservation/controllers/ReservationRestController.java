@@ -1,42 +1,85 @@
 package com.demiglace.flightreservation.controllers;
 
+import java.util.List;
+import java.util.function.Supplier;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.demiglace.flightreservation.dto.ReservationUpdateRequest;
+import com.demiglace.flightreservation.dto.ReservationWireMapper;
 import com.demiglace.flightreservation.entities.Reservation;
 import com.demiglace.flightreservation.repos.ReservationRepository;
+import com.demiglace.flightreservation.services.ReservationArchiveService;
+import com.demiglace.flightreservation.services.ReservationService;
 import com.demiglace.flightreservation.util.PDFGenerator;
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+import com.demiglace.integration.dto.ReservationUpdateResult;
 
 @RestController
 @CrossOrigin
 public class ReservationRestController {
 	@Autowired
 	ReservationRepository reservationRepository;
+
+	@Autowired
+	ReservationArchiveService reservationArchiveService;
+
+	@Autowired
+	ReservationService reservationService;
+
+	@Autowired
+	Tracer tracer;
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(ReservationRestController.class);
 	
 	@RequestMapping("/reservations/{id}")
-	public Reservation findReservation(@PathVariable("id") Long id) {
+	public com.demiglace.integration.dto.Reservation findReservation(@PathVariable("id") Long id) {
 		LOGGER.info("inside findReservation(), for id: " + id);
-		Reservation reservation = reservationRepository.findById(id).get();
-		return reservation;
+		// reservations of long departed flights have been moved to the archive tables
+		Reservation reservation = traced("find-reservation", () -> reservationRepository.findById(id)
+				.orElseGet(() -> reservationArchiveService.findArchivedReservation(id).get()));
+		return ReservationWireMapper.toWire(reservation);
 	}
 	
 	@RequestMapping("/reservations")
-	public Reservation updateReservation(@RequestBody ReservationUpdateRequest request) {
+	public com.demiglace.integration.dto.Reservation updateReservation(@RequestBody ReservationUpdateRequest request) {
 		LOGGER.info("inside updateReservation(), for : " + request);
-		Reservation reservation = reservationRepository.findById(request.getId()).get();
-		reservation.setNumberOfBags(request.getNumberOfBags());
-		reservation.setCheckedIn(request.getCheckedIn());
-		Reservation updatedReservation = reservationRepository.save(reservation);
-		LOGGER.info("saving reservation : " + reservation);
-		return updatedReservation;
+		Reservation updatedReservation = traced("update-reservation", () -> {
+			Reservation reservation = reservationRepository.findById(request.getId()).get();
+			reservation.setNumberOfBags(request.getNumberOfBags());
+			reservation.setCheckedIn(request.getCheckedIn());
+			return reservationRepository.save(reservation);
+		});
+		LOGGER.info("saving reservation : " + updatedReservation);
+		return ReservationWireMapper.toWire(updatedReservation);
+	}
+
+	// group check-in: every update of the group in one request and one transaction
+	@RequestMapping(value = "/reservations/batch", method = RequestMethod.POST)
+	public List<ReservationUpdateResult> updateReservations(@RequestBody List<ReservationUpdateRequest> requests) {
+		LOGGER.info("inside updateReservations(), for {} reservations", requests.size());
+		return traced("update-reservations", () -> reservationService.updateReservations(requests));
+	}
+
+	// the repository work as a child of the server span, the jdbc statements nest under it
+	private <T> T traced(String name, Supplier<T> work) {
+		Span span = tracer.nextSpan().name(name).start();
+		try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+			return work.get();
+		} catch (RuntimeException e) {
+			span.error(e);
+			throw e;
+		} finally {
+			span.end();
+		}
 	}
 }
@@ -0,0 +1,125 @@
+package com.demiglace.flightreservation.dto;
+
+import java.util.Date;
+
+public class ManifestEntry {
+	private Long reservationId;
+	private Boolean checkedIn;
+	private int numberOfBags;
+
+	// flight details
+	private String flightNumber;
+	private String operatingAirlines;
+	private String departureCity;
+	private String arrivalCity;
+	private Date dateOfDeparture;
+
+	// passenger details
+	private String passengerFirstName;
+	private String passengerLastName;
+	private String passengerEmail;
+	private String passengerPhone;
+
+	@Override
+	public String toString() {
+		return "ManifestEntry [reservationId=" + reservationId + ", checkedIn=" + checkedIn + ", numberOfBags="
+				+ numberOfBags + ", flightNumber=" + flightNumber + ", passengerFirstName=" + passengerFirstName
+				+ ", passengerLastName=" + passengerLastName + "]";
+	}
+
+	public Long getReservationId() {
+		return reservationId;
+	}
+
+	public void setReservationId(Long reservationId) {
+		this.reservationId = reservationId;
+	}
+
+	public Boolean getCheckedIn() {
+		return checkedIn;
+	}
+
+	public void setCheckedIn(Boolean checkedIn) {
+		this.checkedIn = checkedIn;
+	}
+
+	public int getNumberOfBags() {
+		return numberOfBags;
+	}
+
+	public void setNumberOfBags(int numberOfBags) {
+		this.numberOfBags = numberOfBags;
+	}
+
+	public String getFlightNumber() {
+		return flightNumber;
+	}
+
+	public void setFlightNumber(String flightNumber) {
+		this.flightNumber = flightNumber;
+	}
+
+	public String getOperatingAirlines() {
+		return operatingAirlines;
+	}
+
+	public void setOperatingAirlines(String operatingAirlines) {
+		this.operatingAirlines = operatingAirlines;
+	}
+
+	public String getDepartureCity() {
+		return departureCity;
+	}
+
+	public void setDepartureCity(String departureCity) {
+		this.departureCity = departureCity;
+	}
+
+	public String getArrivalCity() {
+		return arrivalCity;
+	}
+
+	public void setArrivalCity(String arrivalCity) {
+		this.arrivalCity = arrivalCity;
+	}
+
+	public Date getDateOfDeparture() {
+		return dateOfDeparture;
+	}
+
+	public void setDateOfDeparture(Date dateOfDeparture) {
+		this.dateOfDeparture = dateOfDeparture;
+	}
+
+	public String getPassengerFirstName() {
+		return passengerFirstName;
+	}
+
+	public void setPassengerFirstName(String passengerFirstName) {
+		this.passengerFirstName = passengerFirstName;
+	}
+
+	public String getPassengerLastName() {
+		return passengerLastName;
+	}
+
+	public void setPassengerLastName(String passengerLastName) {
+		this.passengerLastName = passengerLastName;
+	}
+
+	public String getPassengerEmail() {
+		return passengerEmail;
+	}
+
+	public void setPassengerEmail(String passengerEmail) {
+		this.passengerEmail = passengerEmail;
+	}
+
+	public String getPassengerPhone() {
+		return passengerPhone;
+	}
+
+	public void setPassengerPhone(String passengerPhone) {
+		this.passengerPhone = passengerPhone;
+	}
+}
@@ -0,0 +1,54 @@
+package com.demiglace.flightreservation.dto;
+
+import com.demiglace.flightreservation.entities.Flight;
+import com.demiglace.flightreservation.entities.Passenger;
+import com.demiglace.flightreservation.entities.Reservation;
+
+// entities to the shared /reservations wire format
+public final class ReservationWireMapper {
+
+	private ReservationWireMapper() {
+	}
+
+	public static com.demiglace.integration.dto.Reservation toWire(Reservation reservation) {
+		if (reservation == null) {
+			return null;
+		}
+		com.demiglace.integration.dto.Reservation wire = new com.demiglace.integration.dto.Reservation();
+		wire.setId(reservation.getId());
+		wire.setCheckedIn(reservation.getCheckedIn());
+		wire.setNumberOfBags(reservation.getNumberOfBags());
+		wire.setPassenger(toWire(reservation.getPassenger()));
+		wire.setFlight(toWire(reservation.getFlight()));
+		return wire;
+	}
+
+	private static com.demiglace.integration.dto.Passenger toWire(Passenger passenger) {
+		if (passenger == null) {
+			return null;
+		}
+		com.demiglace.integration.dto.Passenger wire = new com.demiglace.integration.dto.Passenger();
+		wire.setId(passenger.getId());
+		wire.setFirstName(passenger.getFirstName());
+		wire.setLastName(passenger.getLastName());
+		wire.setMiddleName(passenger.getMiddleName());
+		wire.setEmail(passenger.getEmail());
+		wire.setPhone(passenger.getPhone());
+		return wire;
+	}
+
+	private static com.demiglace.integration.dto.Flight toWire(Flight flight) {
+		if (flight == null) {
+			return null;
+		}
+		com.demiglace.integration.dto.Flight wire = new com.demiglace.integration.dto.Flight();
+		wire.setId(flight.getId());
+		wire.setFlightNumber(flight.getFlightNumber());
+		wire.setOperatingAirlines(flight.getOperatingAirlines());
+		wire.setDepartureCity(flight.getDepartureCity());
+		wire.setArrivalCity(flight.getArrivalCity());
+		wire.setDateOfDeparture(flight.getDateOfDeparture());
+		wire.setEstimatedDepartureTime(flight.getEstimatedDepartureTime());
+		return wire;
+	}
+}
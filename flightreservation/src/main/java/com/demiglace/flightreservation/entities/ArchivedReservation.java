@@ -0,0 +1,71 @@
+package com.demiglace.flightreservation.entities;
+
+import java.sql.Timestamp;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.OneToOne;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "reservation_archive")
+public class ArchivedReservation {
+	// keeps the id the reservation had in the hot table
+	@Id
+	private Long id;
+	private Boolean checkedIn;
+	private int numberOfBags;
+	@OneToOne
+	private ArchivedPassenger passenger;
+	@OneToOne
+	private Flight flight;
+	private Timestamp archived;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Boolean getCheckedIn() {
+		return checkedIn;
+	}
+
+	public void setCheckedIn(Boolean checkedIn) {
+		this.checkedIn = checkedIn;
+	}
+
+	public int getNumberOfBags() {
+		return numberOfBags;
+	}
+
+	public void setNumberOfBags(int numberOfBags) {
+		this.numberOfBags = numberOfBags;
+	}
+
+	public ArchivedPassenger getPassenger() {
+		return passenger;
+	}
+
+	public void setPassenger(ArchivedPassenger passenger) {
+		this.passenger = passenger;
+	}
+
+	public Flight getFlight() {
+		return flight;
+	}
+
+	public void setFlight(Flight flight) {
+		this.flight = flight;
+	}
+
+	public Timestamp getArchived() {
+		return archived;
+	}
+
+	public void setArchived(Timestamp archived) {
+		this.archived = archived;
+	}
+}
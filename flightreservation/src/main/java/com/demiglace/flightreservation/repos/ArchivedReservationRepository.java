@@ -0,0 +1,9 @@
+package com.demiglace.flightreservation.repos;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.demiglace.flightreservation.entities.ArchivedReservation;
+
+public interface ArchivedReservationRepository extends JpaRepository<ArchivedReservation, Long> {
+
+}
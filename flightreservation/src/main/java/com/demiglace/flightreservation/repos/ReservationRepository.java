@@ -6,6 +6,6 @@ import com.demiglace.flightreservation.entities.Flight;
 import com.demiglace.flightreservation.entities.Reservation;
 import com.demiglace.flightreservation.entities.User;
 
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+public interface ReservationRepository extends JpaRepository<Reservation, Long>, ReservationRepositoryCustom {
 
 }
@@ -0,0 +1,20 @@
+package com.demiglace.flightreservation.repos;
+
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.demiglace.flightreservation.dto.ManifestEntry;
+
+public interface ReservationRepositoryCustom {
+	// streams the manifest rows one by one from a forward only cursor
+	void streamFlightManifest(Long flightId, Consumer<ManifestEntry> consumer);
+
+	void streamDailyManifest(Date dateOfDeparture, Consumer<ManifestEntry> consumer);
+
+	// ids of reservations whose flight departed before the cutoff, oldest first
+	List<Long> findDepartedReservationIds(Date departedBefore, int limit);
+
+	// copies the reservations and their passengers into the archive tables then removes them from the hot tables
+	int archiveReservations(List<Long> reservationIds);
+}
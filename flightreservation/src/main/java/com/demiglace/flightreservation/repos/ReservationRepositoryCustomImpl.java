@@ -0,0 +1,101 @@
+package com.demiglace.flightreservation.repos;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.demiglace.flightreservation.dto.ManifestEntry;
+
+public class ReservationRepositoryCustomImpl implements ReservationRepositoryCustom {
+	private static final String MANIFEST_QUERY = "select r.id, r.checked_in, r.number_of_bags, f.flight_number, "
+			+ "f.operating_airlines, f.departure_city, f.arrival_city, f.date_of_departure, "
+			+ "p.first_name, p.last_name, p.email, p.phone "
+			+ "from reservation r join flight f on r.flight_id = f.id join passenger p on r.passenger_id = p.id ";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public ReservationRepositoryCustomImpl(DataSource dataSource,
+			@Value("${com.demiglace.flightreservation.manifest.fetchsize}") int fetchSize) {
+		// forward only, read only cursor; with useCursorFetch the driver only holds fetchSize rows at a time
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.setFetchSize(fetchSize);
+	}
+
+	@Override
+	public void streamFlightManifest(Long flightId, Consumer<ManifestEntry> consumer) {
+		jdbcTemplate.query(MANIFEST_QUERY + "where f.id = ? order by p.last_name, p.first_name",
+				manifestRowHandler(consumer), flightId);
+	}
+
+	@Override
+	public void streamDailyManifest(Date dateOfDeparture, Consumer<ManifestEntry> consumer) {
+		jdbcTemplate.query(
+				MANIFEST_QUERY + "where f.date_of_departure = ? order by f.flight_number, p.last_name, p.first_name",
+				manifestRowHandler(consumer), new java.sql.Date(dateOfDeparture.getTime()));
+	}
+
+	@Override
+	public List<Long> findDepartedReservationIds(Date departedBefore, int limit) {
+		return jdbcTemplate.queryForList(
+				"select r.id from reservation r join flight f on r.flight_id = f.id "
+						+ "where f.date_of_departure < ? order by r.id limit ?",
+				Long.class, new java.sql.Date(departedBefore.getTime()), limit);
+	}
+
+	@Override
+	public int archiveReservations(List<Long> reservationIds) {
+		if (reservationIds.isEmpty()) {
+			return 0;
+		}
+		String ids = String.join(",", Collections.nCopies(reservationIds.size(), "?"));
+		Object[] args = reservationIds.toArray();
+
+		jdbcTemplate.update("insert into passenger_archive (id, first_name, last_name, middle_name, email, phone) "
+				+ "select p.id, p.first_name, p.last_name, p.middle_name, p.email, p.phone from passenger p "
+				+ "join reservation r on r.passenger_id = p.id where r.id in (" + ids + ")", args);
+		jdbcTemplate.update("insert into reservation_archive "
+				+ "(id, checked_in, number_of_bags, passenger_id, flight_id, archived) "
+				+ "select id, checked_in, number_of_bags, passenger_id, flight_id, current_timestamp from reservation "
+				+ "where id in (" + ids + ")", args);
+
+		// the reservation references the passenger so it has to go first
+		List<Long> passengerIds = jdbcTemplate.queryForList(
+				"select passenger_id from reservation where id in (" + ids + ")", Long.class, args);
+		int archived = jdbcTemplate.update("delete from reservation where id in (" + ids + ")", args);
+		if (!passengerIds.isEmpty()) {
+			jdbcTemplate.update("delete from passenger where id in ("
+					+ String.join(",", Collections.nCopies(passengerIds.size(), "?")) + ")", passengerIds.toArray());
+		}
+		return archived;
+	}
+
+	private RowCallbackHandler manifestRowHandler(Consumer<ManifestEntry> consumer) {
+		return rs -> consumer.accept(mapManifestEntry(rs));
+	}
+
+	private ManifestEntry mapManifestEntry(ResultSet rs) throws SQLException {
+		ManifestEntry entry = new ManifestEntry();
+		entry.setReservationId(rs.getLong(1));
+		entry.setCheckedIn(rs.getBoolean(2));
+		entry.setNumberOfBags(rs.getInt(3));
+		entry.setFlightNumber(rs.getString(4));
+		entry.setOperatingAirlines(rs.getString(5));
+		entry.setDepartureCity(rs.getString(6));
+		entry.setArrivalCity(rs.getString(7));
+		entry.setDateOfDeparture(rs.getDate(8));
+		entry.setPassengerFirstName(rs.getString(9));
+		entry.setPassengerLastName(rs.getString(10));
+		entry.setPassengerEmail(rs.getString(11));
+		entry.setPassengerPhone(rs.getString(12));
+		return entry;
+	}
+}
@@ -0,0 +1,10 @@
+package com.demiglace.flightreservation.services;
+
+import java.io.OutputStream;
+import java.util.Date;
+
+public interface ManifestService {
+	public long exportFlightManifest(Long flightId, String format, OutputStream out);
+
+	public long exportDailyManifest(Date dateOfDeparture, String format, OutputStream out);
+}
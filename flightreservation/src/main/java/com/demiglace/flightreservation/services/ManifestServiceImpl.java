@@ -0,0 +1,80 @@
+package com.demiglace.flightreservation.services;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.demiglace.flightreservation.repos.ReservationRepository;
+import com.demiglace.flightreservation.util.ManifestWriter;
+
+@Service
+public class ManifestServiceImpl implements ManifestService {
+
+	@Value("${com.demiglace.flightreservation.manifest.dirpath}")
+	private String MANIFEST_DIR;
+
+	@Value("${com.demiglace.flightreservation.manifest.format}")
+	private String MANIFEST_FORMAT;
+
+	@Autowired
+	ReservationRepository reservationRepository;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ManifestServiceImpl.class);
+
+	@Override
+	public long exportFlightManifest(Long flightId, String format, OutputStream out) {
+		LOGGER.info("inside exportFlightManifest() for flight id: {} format: {}", flightId, format);
+		AtomicLong count = new AtomicLong();
+		try (ManifestWriter writer = ManifestWriter.forFormat(format, "Passenger Manifest - Flight " + flightId, out)) {
+			reservationRepository.streamFlightManifest(flightId, entry -> {
+				writer.writeEntry(entry);
+				count.incrementAndGet();
+			});
+		}
+		LOGGER.info("exported {} manifest entries for flight id: {}", count.get(), flightId);
+		return count.get();
+	}
+
+	@Override
+	public long exportDailyManifest(Date dateOfDeparture, String format, OutputStream out) {
+		String date = new SimpleDateFormat("MM-dd-yyyy").format(dateOfDeparture);
+		LOGGER.info("inside exportDailyManifest() for date: {} format: {}", date, format);
+		AtomicLong count = new AtomicLong();
+		try (ManifestWriter writer = ManifestWriter.forFormat(format, "Passenger Manifest - " + date, out)) {
+			reservationRepository.streamDailyManifest(dateOfDeparture, entry -> {
+				writer.writeEntry(entry);
+				count.incrementAndGet();
+			});
+		}
+		LOGGER.info("exported {} manifest entries for date: {}", count.get(), date);
+		return count.get();
+	}
+
+	// batch job: writes the manifest of the next day's departures into the manifest directory
+	@Scheduled(cron = "${com.demiglace.flightreservation.manifest.cron}")
+	public void exportNextDayManifest() {
+		Calendar calendar = Calendar.getInstance();
+		calendar.add(Calendar.DAY_OF_MONTH, 1);
+		Date dateOfDeparture = calendar.getTime();
+
+		String filePath = MANIFEST_DIR + "manifest-" + new SimpleDateFormat("yyyy-MM-dd").format(dateOfDeparture)
+				+ "." + MANIFEST_FORMAT;
+		LOGGER.info("generating daily manifest: {}", filePath);
+		try (OutputStream out = new FileOutputStream(filePath)) {
+			exportDailyManifest(dateOfDeparture, MANIFEST_FORMAT, out);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.error("Exception inside exportNextDayManifest()" + e);
+		}
+	}
+}
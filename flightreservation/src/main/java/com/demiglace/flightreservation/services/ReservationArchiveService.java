@@ -0,0 +1,11 @@
+package com.demiglace.flightreservation.services;
+
+import java.util.Optional;
+
+import com.demiglace.flightreservation.entities.Reservation;
+
+public interface ReservationArchiveService {
+	public int archiveDepartedReservations();
+
+	public Optional<Reservation> findArchivedReservation(Long id);
+}
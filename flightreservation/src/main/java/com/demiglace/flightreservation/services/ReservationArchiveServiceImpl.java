@@ -0,0 +1,115 @@
+package com.demiglace.flightreservation.services;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demiglace.flightreservation.entities.ArchivedPassenger;
+import com.demiglace.flightreservation.entities.ArchivedReservation;
+import com.demiglace.flightreservation.entities.Passenger;
+import com.demiglace.flightreservation.entities.Reservation;
+import com.demiglace.flightreservation.repos.ArchivedReservationRepository;
+import com.demiglace.flightreservation.repos.ReservationRepository;
+
+@Service
+public class ReservationArchiveServiceImpl implements ReservationArchiveService {
+
+	@Value("${com.demiglace.flightreservation.archive.retentiondays}")
+	private int RETENTION_DAYS;
+
+	@Value("${com.demiglace.flightreservation.archive.batchsize}")
+	private int BATCH_SIZE;
+
+	@Value("${com.demiglace.flightreservation.archive.batchpausemillis}")
+	private long BATCH_PAUSE_MILLIS;
+
+	@Autowired
+	ReservationRepository reservationRepository;
+
+	@Autowired
+	ArchivedReservationRepository archivedReservationRepository;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReservationArchiveServiceImpl.class);
+
+	public ReservationArchiveServiceImpl(PlatformTransactionManager transactionManager) {
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@Override
+	@Scheduled(cron = "${com.demiglace.flightreservation.archive.cron}")
+	public int archiveDepartedReservations() {
+		Calendar calendar = Calendar.getInstance();
+		calendar.add(Calendar.DAY_OF_MONTH, -RETENTION_DAYS);
+		Date cutoff = calendar.getTime();
+		LOGGER.info("inside archiveDepartedReservations() for flights departed before: {}", cutoff);
+
+		int total = 0;
+		while (true) {
+			// every batch is its own short transaction so the hot tables are never locked for long
+			Integer archived = transactionTemplate.execute(status -> {
+				List<Long> ids = reservationRepository.findDepartedReservationIds(cutoff, BATCH_SIZE);
+				return reservationRepository.archiveReservations(ids);
+			});
+			if (archived == null || archived == 0) {
+				break;
+			}
+			total += archived;
+			LOGGER.info("archived {} reservations, {} so far", archived, total);
+			if (archived < BATCH_SIZE || !pause()) {
+				break;
+			}
+		}
+		LOGGER.info("archived {} reservations in total", total);
+		return total;
+	}
+
+	@Override
+	public Optional<Reservation> findArchivedReservation(Long id) {
+		LOGGER.info("inside findArchivedReservation(), for id: " + id);
+		return archivedReservationRepository.findById(id).map(this::toReservation);
+	}
+
+	private boolean pause() {
+		try {
+			Thread.sleep(BATCH_PAUSE_MILLIS);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	// archived rows are served in the same shape as the hot ones
+	private Reservation toReservation(ArchivedReservation archivedReservation) {
+		Reservation reservation = new Reservation();
+		reservation.setId(archivedReservation.getId());
+		reservation.setCheckedIn(archivedReservation.getCheckedIn());
+		reservation.setNumberOfBags(archivedReservation.getNumberOfBags());
+		reservation.setFlight(archivedReservation.getFlight());
+
+		ArchivedPassenger archivedPassenger = archivedReservation.getPassenger();
+		if (archivedPassenger != null) {
+			Passenger passenger = new Passenger();
+			passenger.setId(archivedPassenger.getId());
+			passenger.setFirstName(archivedPassenger.getFirstName());
+			passenger.setLastName(archivedPassenger.getLastName());
+			passenger.setMiddleName(archivedPassenger.getMiddleName());
+			passenger.setEmail(archivedPassenger.getEmail());
+			passenger.setPhone(archivedPassenger.getPhone());
+			reservation.setPassenger(passenger);
+		}
+		return reservation;
+	}
+}
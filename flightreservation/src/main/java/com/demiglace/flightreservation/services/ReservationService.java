@@ -1,8 +1,14 @@
 package com.demiglace.flightreservation.services;
 
+import java.util.List;
+
 import com.demiglace.flightreservation.dto.ReservationRequest;
 import com.demiglace.flightreservation.entities.Reservation;
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+import com.demiglace.integration.dto.ReservationUpdateResult;
 
 public interface ReservationService {
 	public Reservation bookFlight(ReservationRequest request);
+
+	public List<ReservationUpdateResult> updateReservations(List<ReservationUpdateRequest> requests);
 }
@@ -1,5 +1,11 @@
 package com.demiglace.flightreservation.services;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.demiglace.flightreservation.controllers.ReservationController;
 import com.demiglace.flightreservation.dto.ReservationRequest;
+import com.demiglace.flightreservation.dto.ReservationWireMapper;
 import com.demiglace.flightreservation.entities.Flight;
 import com.demiglace.flightreservation.entities.Passenger;
 import com.demiglace.flightreservation.entities.Reservation;
@@ -17,6 +24,8 @@ import com.demiglace.flightreservation.repos.PassengerRepository;
 import com.demiglace.flightreservation.repos.ReservationRepository;
 import com.demiglace.flightreservation.util.EmailUtil;
 import com.demiglace.flightreservation.util.PDFGenerator;
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+import com.demiglace.integration.dto.ReservationUpdateResult;
 
 @Service
 public class ReservationServiceImpl implements ReservationService {
@@ -80,4 +89,31 @@ public class ReservationServiceImpl implements ReservationService {
 
 		return savedReservation;
 	}
+
+	@Override
+	@Transactional
+	public List<ReservationUpdateResult> updateReservations(List<ReservationUpdateRequest> requests) {
+		LOGGER.info("inside updateReservations() for {} reservations", requests.size());
+		// load the whole group with one query instead of one select per reservation
+		List<Long> ids = requests.stream().map(ReservationUpdateRequest::getId).collect(Collectors.toList());
+		Map<Long, Reservation> reservations = reservationRepository.findAllById(ids).stream()
+				.collect(Collectors.toMap(Reservation::getId, Function.identity()));
+
+		List<ReservationUpdateResult> results = new ArrayList<>(requests.size());
+		for (ReservationUpdateRequest request : requests) {
+			Reservation reservation = reservations.get(request.getId());
+			if (reservation == null) {
+				results.add(new ReservationUpdateResult(request.getId(), ReservationUpdateResult.NOT_FOUND, null));
+				continue;
+			}
+			reservation.setNumberOfBags(request.getNumberOfBags());
+			reservation.setCheckedIn(request.getCheckedIn());
+			results.add(new ReservationUpdateResult(request.getId(), ReservationUpdateResult.UPDATED,
+					ReservationWireMapper.toWire(reservation)));
+		}
+
+		// the updates are flushed as one jdbc batch when the transaction commits
+		reservationRepository.saveAll(reservations.values());
+		return results;
+	}
 }
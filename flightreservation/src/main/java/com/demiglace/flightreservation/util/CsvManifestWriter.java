@@ -0,0 +1,68 @@
+package com.demiglace.flightreservation.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import com.demiglace.flightreservation.dto.ManifestEntry;
+
+public class CsvManifestWriter implements ManifestWriter {
+	private static final String HEADER = "reservationId,flightNumber,operatingAirlines,departureCity,arrivalCity,"
+			+ "dateOfDeparture,firstName,lastName,email,phone,checkedIn,numberOfBags";
+
+	private final BufferedWriter writer;
+
+	public CsvManifestWriter(OutputStream out) {
+		this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		write(HEADER);
+	}
+
+	@Override
+	public void writeEntry(ManifestEntry entry) {
+		StringBuilder line = new StringBuilder(128);
+		line.append(entry.getReservationId()).append(',');
+		appendField(line, entry.getFlightNumber()).append(',');
+		appendField(line, entry.getOperatingAirlines()).append(',');
+		appendField(line, entry.getDepartureCity()).append(',');
+		appendField(line, entry.getArrivalCity()).append(',');
+		line.append(entry.getDateOfDeparture()).append(',');
+		appendField(line, entry.getPassengerFirstName()).append(',');
+		appendField(line, entry.getPassengerLastName()).append(',');
+		appendField(line, entry.getPassengerEmail()).append(',');
+		appendField(line, entry.getPassengerPhone()).append(',');
+		line.append(entry.getCheckedIn()).append(',');
+		line.append(entry.getNumberOfBags());
+		write(line.toString());
+	}
+
+	@Override
+	public void close() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void write(String line) {
+		try {
+			writer.write(line);
+			writer.write("\r\n");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private StringBuilder appendField(StringBuilder line, String value) {
+		if (value == null) {
+			return line;
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+			return line.append(value);
+		}
+		return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+	}
+}
@@ -0,0 +1,34 @@
+package com.demiglace.flightreservation.util;
+
+import java.io.OutputStream;
+
+import com.demiglace.flightreservation.dto.ManifestEntry;
+
+public interface ManifestWriter extends AutoCloseable {
+	String CSV = "csv";
+	String PDF = "pdf";
+
+	void writeEntry(ManifestEntry entry);
+
+	// flushes whatever is still buffered and closes the underlying stream
+	@Override
+	void close();
+
+	static boolean isSupported(String format) {
+		return CSV.equalsIgnoreCase(format) || PDF.equalsIgnoreCase(format);
+	}
+
+	static ManifestWriter forFormat(String format, String title, OutputStream out) {
+		if (PDF.equalsIgnoreCase(format)) {
+			return new PdfManifestWriter(title, out);
+		}
+		if (CSV.equalsIgnoreCase(format)) {
+			return new CsvManifestWriter(out);
+		}
+		throw new IllegalArgumentException("Unsupported manifest format: " + format);
+	}
+
+	static String contentType(String format) {
+		return PDF.equalsIgnoreCase(format) ? "application/pdf" : "text/csv";
+	}
+}
@@ -0,0 +1,81 @@
+package com.demiglace.flightreservation.util;
+
+import java.io.OutputStream;
+
+import com.demiglace.flightreservation.dto.ManifestEntry;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.ExceptionConverter;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+
+public class PdfManifestWriter implements ManifestWriter {
+	// rows kept in memory before the table is handed over to the writer
+	private static final int FLUSH_ROWS = 50;
+
+	private final Document document;
+	private final PdfPTable table;
+	private int pendingRows;
+	private long writtenRows;
+
+	public PdfManifestWriter(String title, OutputStream out) {
+		document = new Document(PageSize.A4.rotate());
+		try {
+			PdfWriter.getInstance(document, out);
+			document.open();
+			document.add(new Paragraph(title));
+		} catch (DocumentException e) {
+			throw new ExceptionConverter(e);
+		}
+
+		// the table is a large element: completed rows are written out and released on every flush
+		table = new PdfPTable(8);
+		table.setWidthPercentage(100);
+		table.setComplete(false);
+		table.setHeaderRows(1);
+		table.addCell("Reservation");
+		table.addCell("Flight");
+		table.addCell("Route");
+		table.addCell("Departure Date");
+		table.addCell("Passenger");
+		table.addCell("Phone");
+		table.addCell("Checked In");
+		table.addCell("Bags");
+	}
+
+	@Override
+	public void writeEntry(ManifestEntry entry) {
+		table.addCell(String.valueOf(entry.getReservationId()));
+		table.addCell(entry.getOperatingAirlines() + " " + entry.getFlightNumber());
+		table.addCell(entry.getDepartureCity() + " - " + entry.getArrivalCity());
+		table.addCell(String.valueOf(entry.getDateOfDeparture()));
+		table.addCell(entry.getPassengerLastName() + ", " + entry.getPassengerFirstName());
+		table.addCell(entry.getPassengerPhone());
+		table.addCell(Boolean.TRUE.equals(entry.getCheckedIn()) ? "Yes" : "No");
+		table.addCell(String.valueOf(entry.getNumberOfBags()));
+		writtenRows++;
+		if (++pendingRows == FLUSH_ROWS) {
+			flush();
+		}
+	}
+
+	@Override
+	public void close() {
+		table.setComplete(true);
+		if (pendingRows > 0 || writtenRows == 0) {
+			flush();
+		}
+		document.close();
+	}
+
+	private void flush() {
+		try {
+			document.add(table);
+		} catch (DocumentException e) {
+			throw new ExceptionConverter(e);
+		}
+		pendingRows = 0;
+	}
+}
@@ -0,0 +1,100 @@
+package com.demiglace.flightreservation.repos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class ReservationRepositoryCustomImplTests {
+	private EmbeddedDatabase database;
+	private JdbcTemplate jdbcTemplate;
+	private ReservationRepositoryCustomImpl repository;
+
+	@BeforeEach
+	void setUp() {
+		database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+		jdbcTemplate = new JdbcTemplate(database);
+		jdbcTemplate.execute("create table flight (id bigint primary key, flight_number varchar(20), "
+				+ "operating_airlines varchar(50), departure_city varchar(20), arrival_city varchar(20), "
+				+ "date_of_departure date)");
+		jdbcTemplate.execute("create table passenger (id bigint primary key, first_name varchar(50), "
+				+ "last_name varchar(50), middle_name varchar(50), email varchar(50), phone varchar(20))");
+		jdbcTemplate.execute("create table reservation (id bigint primary key, checked_in boolean, "
+				+ "number_of_bags int, passenger_id bigint references passenger(id), "
+				+ "flight_id bigint references flight(id))");
+		jdbcTemplate.execute("create table passenger_archive (id bigint primary key, first_name varchar(50), "
+				+ "last_name varchar(50), middle_name varchar(50), email varchar(50), phone varchar(20))");
+		jdbcTemplate.execute("create table reservation_archive (id bigint primary key, checked_in boolean, "
+				+ "number_of_bags int, passenger_id bigint, flight_id bigint, archived timestamp)");
+
+		// flight 1 left long ago, flight 2 hasn't left yet
+		flight(1, new GregorianCalendar(2020, 0, 1));
+		flight(2, new GregorianCalendar(2099, 0, 1));
+		for (long id = 1; id <= 5; id++) {
+			reservation(id, id <= 3 ? 1 : 2);
+		}
+		repository = new ReservationRepositoryCustomImpl(database, 100);
+	}
+
+	@AfterEach
+	void tearDown() {
+		database.shutdown();
+	}
+
+	@Test
+	void testFindsDepartedReservationsOldestFirstInBatches() {
+		Date cutoff = new GregorianCalendar(2021, 0, 1).getTime();
+		assertEquals(Arrays.asList(1L, 2L), repository.findDepartedReservationIds(cutoff, 2));
+		assertEquals(Arrays.asList(1L, 2L, 3L), repository.findDepartedReservationIds(cutoff, 10));
+	}
+
+	@Test
+	void testArchiveMovesReservationsAndPassengers() {
+		assertEquals(2, repository.archiveReservations(Arrays.asList(1L, 3L)));
+
+		assertEquals(Arrays.asList(2L, 4L, 5L), ids("reservation"));
+		assertEquals(Arrays.asList(2L, 4L, 5L), ids("passenger"));
+		assertEquals(Arrays.asList(1L, 3L), ids("reservation_archive"));
+		assertEquals(Arrays.asList(1L, 3L), ids("passenger_archive"));
+
+		Map<String, Object> archived = jdbcTemplate.queryForMap("select * from reservation_archive where id = 3");
+		assertEquals(3L, ((Number) archived.get("PASSENGER_ID")).longValue());
+		assertEquals(1L, ((Number) archived.get("FLIGHT_ID")).longValue());
+		assertEquals(3, ((Number) archived.get("NUMBER_OF_BAGS")).intValue());
+		assertEquals("Last3", jdbcTemplate.queryForObject("select last_name from passenger_archive where id = 3",
+				String.class));
+	}
+
+	@Test
+	void testNothingToArchive() {
+		assertEquals(0, repository.archiveReservations(Collections.emptyList()));
+		assertEquals(5, ids("reservation").size());
+	}
+
+	private List<Long> ids(String table) {
+		return jdbcTemplate.queryForList("select id from " + table + " order by id", Long.class);
+	}
+
+	private void flight(long id, GregorianCalendar departure) {
+		jdbcTemplate.update("insert into flight values (?, ?, 'Airline', 'AUS', 'LAX', ?)", id, "F" + id,
+				new java.sql.Date(departure.getTimeInMillis()));
+	}
+
+	private void reservation(long id, long flightId) {
+		jdbcTemplate.update("insert into passenger values (?, ?, ?, null, ?, '555')", id, "First" + id, "Last" + id,
+				"p" + id + "@example.com");
+		jdbcTemplate.update("insert into reservation values (?, false, ?, ?, ?)", id, (int) id, id, flightId);
+	}
+}
@@ -0,0 +1,65 @@
+package com.demiglace.flightreservation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.demiglace.flightreservation.dto.ManifestEntry;
+import com.demiglace.flightreservation.repos.ReservationRepository;
+
+class ManifestServiceImplTests {
+	private ReservationRepository reservationRepository;
+	private ManifestServiceImpl manifestService;
+
+	@BeforeEach
+	void setUp() {
+		reservationRepository = mock(ReservationRepository.class);
+		manifestService = new ManifestServiceImpl();
+		ReflectionTestUtils.setField(manifestService, "reservationRepository", reservationRepository);
+	}
+
+	@Test
+	void testFlightManifestIsWrittenRowByRow() {
+		doAnswer(invocation -> {
+			Consumer<ManifestEntry> consumer = invocation.getArgument(1);
+			for (long id = 1; id <= 3; id++) {
+				consumer.accept(entry(id));
+			}
+			return null;
+		}).when(reservationRepository).streamFlightManifest(eq(5L), any());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertEquals(3, manifestService.exportFlightManifest(5L, "csv", out));
+		String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\r\n");
+		assertEquals(4, lines.length);
+		assertTrue(lines[3].startsWith("3,AA1,"));
+	}
+
+	@Test
+	void testEmptyDayStillClosesTheDocument() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		assertEquals(0, manifestService.exportDailyManifest(new Date(), "pdf", out));
+		assertTrue(new String(out.toByteArray(), StandardCharsets.ISO_8859_1).contains("%%EOF"));
+	}
+
+	private static ManifestEntry entry(long reservationId) {
+		ManifestEntry entry = new ManifestEntry();
+		entry.setReservationId(reservationId);
+		entry.setFlightNumber("AA1");
+		entry.setPassengerFirstName("John");
+		entry.setPassengerLastName("Doe");
+		return entry;
+	}
+}
@@ -0,0 +1,98 @@
+package com.demiglace.flightreservation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.demiglace.flightreservation.entities.ArchivedPassenger;
+import com.demiglace.flightreservation.entities.ArchivedReservation;
+import com.demiglace.flightreservation.entities.Reservation;
+import com.demiglace.flightreservation.repos.ArchivedReservationRepository;
+import com.demiglace.flightreservation.repos.ReservationRepository;
+
+class ReservationArchiveServiceImplTests {
+	private ReservationRepository reservationRepository;
+	private ArchivedReservationRepository archivedReservationRepository;
+	private PlatformTransactionManager transactionManager;
+	private ReservationArchiveServiceImpl archiveService;
+
+	@BeforeEach
+	void setUp() {
+		reservationRepository = mock(ReservationRepository.class);
+		archivedReservationRepository = mock(ArchivedReservationRepository.class);
+		transactionManager = mock(PlatformTransactionManager.class);
+		archiveService = new ReservationArchiveServiceImpl(transactionManager);
+		ReflectionTestUtils.setField(archiveService, "reservationRepository", reservationRepository);
+		ReflectionTestUtils.setField(archiveService, "archivedReservationRepository", archivedReservationRepository);
+		ReflectionTestUtils.setField(archiveService, "RETENTION_DAYS", 30);
+		ReflectionTestUtils.setField(archiveService, "BATCH_SIZE", 2);
+		ReflectionTestUtils.setField(archiveService, "BATCH_PAUSE_MILLIS", 0L);
+	}
+
+	@Test
+	void testArchivesInBatchesUntilAShortOne() {
+		when(reservationRepository.findDepartedReservationIds(any(Date.class), eq(2)))
+				.thenReturn(Arrays.asList(1L, 2L), Arrays.asList(3L, 4L), Arrays.asList(5L));
+		when(reservationRepository.archiveReservations(anyList())).thenAnswer(
+				invocation -> invocation.getArgument(0, List.class).size());
+
+		assertEquals(5, archiveService.archiveDepartedReservations());
+		verify(reservationRepository).archiveReservations(Arrays.asList(1L, 2L));
+		verify(reservationRepository).archiveReservations(Arrays.asList(3L, 4L));
+		verify(reservationRepository).archiveReservations(Arrays.asList(5L));
+		// one transaction per batch
+		verify(transactionManager, times(3)).commit(any());
+	}
+
+	@Test
+	void testCutoffIsRetentionDaysAgo() {
+		when(reservationRepository.findDepartedReservationIds(any(Date.class), anyInt()))
+				.thenReturn(Collections.emptyList());
+		when(reservationRepository.archiveReservations(anyList())).thenReturn(0);
+		long before = System.currentTimeMillis();
+
+		assertEquals(0, archiveService.archiveDepartedReservations());
+		ArgumentCaptor<Date> cutoff = ArgumentCaptor.forClass(Date.class);
+		verify(reservationRepository).findDepartedReservationIds(cutoff.capture(), eq(2));
+		long days = (before - cutoff.getValue().getTime()) / (24L * 60 * 60 * 1000);
+		assertTrue(days >= 29 && days <= 30, "cutoff " + days + " days ago");
+	}
+
+	@Test
+	void testArchivedReservationKeepsItsShape() {
+		ArchivedPassenger passenger = new ArchivedPassenger();
+		passenger.setId(9L);
+		passenger.setLastName("Doe");
+		ArchivedReservation archived = new ArchivedReservation();
+		archived.setId(4L);
+		archived.setNumberOfBags(2);
+		archived.setPassenger(passenger);
+		when(archivedReservationRepository.findById(4L)).thenReturn(Optional.of(archived));
+
+		Reservation reservation = archiveService.findArchivedReservation(4L).get();
+		assertEquals(4L, reservation.getId());
+		assertEquals(2, reservation.getNumberOfBags());
+		assertEquals("Doe", reservation.getPassenger().getLastName());
+		assertFalse(archiveService.findArchivedReservation(5L).isPresent());
+	}
+}
@@ -0,0 +1,76 @@
+package com.demiglace.flightreservation.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.demiglace.flightreservation.entities.Reservation;
+import com.demiglace.flightreservation.repos.ReservationRepository;
+import com.demiglace.integration.dto.ReservationUpdateRequest;
+import com.demiglace.integration.dto.ReservationUpdateResult;
+
+class ReservationServiceImplTests {
+	private ReservationRepository reservationRepository;
+	private ReservationServiceImpl reservationService;
+
+	@BeforeEach
+	void setUp() {
+		reservationRepository = mock(ReservationRepository.class);
+		reservationService = new ReservationServiceImpl();
+		ReflectionTestUtils.setField(reservationService, "reservationRepository", reservationRepository);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testGroupIsLoadedAndSavedTogether() {
+		Reservation first = reservation(1L);
+		Reservation second = reservation(2L);
+		when(reservationRepository.findAllById(Arrays.asList(2L, 9L, 1L))).thenReturn(Arrays.asList(first, second));
+
+		List<ReservationUpdateResult> results = reservationService.updateReservations(
+				Arrays.asList(updateRequest(2L, 3), updateRequest(9L, 1), updateRequest(1L, 0)));
+
+		// the results keep the order of the requests, unknown ids are reported instead of failing the group
+		assertEquals(3, results.size());
+		assertEquals(ReservationUpdateResult.UPDATED, results.get(0).getStatus());
+		assertEquals(2L, results.get(0).getReservation().getId());
+		assertEquals(3, results.get(0).getReservation().getNumberOfBags());
+		assertEquals(ReservationUpdateResult.NOT_FOUND, results.get(1).getStatus());
+		assertNull(results.get(1).getReservation());
+		assertEquals(1L, results.get(2).getReservation().getId());
+		assertEquals(3, second.getNumberOfBags());
+		assertTrue(second.getCheckedIn());
+
+		ArgumentCaptor<Collection<Reservation>> saved = ArgumentCaptor.forClass(Collection.class);
+		verify(reservationRepository).saveAll(saved.capture());
+		assertEquals(2, saved.getValue().size());
+	}
+
+	private static Reservation reservation(Long id) {
+		Reservation reservation = new Reservation();
+		reservation.setId(id);
+		reservation.setCheckedIn(false);
+		reservation.setNumberOfBags(0);
+		return reservation;
+	}
+
+	private static ReservationUpdateRequest updateRequest(Long id, int numberOfBags) {
+		ReservationUpdateRequest request = new ReservationUpdateRequest();
+		request.setId(id);
+		request.setNumberOfBags(numberOfBags);
+		request.setCheckedIn(true);
+		return request;
+	}
+}
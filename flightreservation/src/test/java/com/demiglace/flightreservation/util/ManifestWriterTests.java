@@ -0,0 +1,87 @@
+package com.demiglace.flightreservation.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.GregorianCalendar;
+
+import org.junit.jupiter.api.Test;
+
+import com.demiglace.flightreservation.dto.ManifestEntry;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+
+class ManifestWriterTests {
+
+	@Test
+	void testCsvHasHeaderAndQuotesFields() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ManifestWriter writer = ManifestWriter.forFormat("CSV", "ignored", out)) {
+			ManifestEntry entry = entry(7L);
+			entry.setDepartureCity("Washington, DC");
+			entry.setPassengerLastName("O\"Brien");
+			entry.setPassengerPhone(null);
+			writer.writeEntry(entry);
+		}
+		String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\r\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].startsWith("reservationId,flightNumber,"));
+		assertEquals("7,AA1,American Airlines,\"Washington, DC\",LAX," + entry(7L).getDateOfDeparture()
+				+ ",John,\"O\"\"Brien\",john@example.com,,true,2", lines[1]);
+	}
+
+	@Test
+	void testPdfKeepsEveryRowAcrossFlushes() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		// more rows than one flush holds
+		try (ManifestWriter writer = ManifestWriter.forFormat(ManifestWriter.PDF, "Passenger Manifest - Flight 1", out)) {
+			for (long id = 1; id <= 120; id++) {
+				writer.writeEntry(entry(id));
+			}
+		}
+		PdfReader pdf = new PdfReader(out.toByteArray());
+		StringBuilder text = new StringBuilder();
+		for (int page = 1; page <= pdf.getNumberOfPages(); page++) {
+			text.append(PdfTextExtractor.getTextFromPage(pdf, page)).append('\n');
+		}
+		assertTrue(text.toString().startsWith("Passenger Manifest - Flight 1"));
+		for (long id = 1; id <= 120; id++) {
+			assertTrue(text.toString().contains("\n" + id + " "), "row " + id);
+		}
+	}
+
+	@Test
+	void testEmptyPdfIsStillADocument() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ManifestWriter.forFormat(ManifestWriter.PDF, "Passenger Manifest - 01-01-2030", out).close();
+		PdfReader pdf = new PdfReader(out.toByteArray());
+		assertEquals(1, pdf.getNumberOfPages());
+		assertTrue(PdfTextExtractor.getTextFromPage(pdf, 1).contains("Passenger Manifest - 01-01-2030"));
+	}
+
+	@Test
+	void testUnknownFormatIsRejected() {
+		assertThrows(IllegalArgumentException.class,
+				() -> ManifestWriter.forFormat("xlsx", "ignored", new ByteArrayOutputStream()));
+	}
+
+	static ManifestEntry entry(Long reservationId) {
+		ManifestEntry entry = new ManifestEntry();
+		entry.setReservationId(reservationId);
+		entry.setCheckedIn(true);
+		entry.setNumberOfBags(2);
+		entry.setFlightNumber("AA1");
+		entry.setOperatingAirlines("American Airlines");
+		entry.setDepartureCity("AUS");
+		entry.setArrivalCity("LAX");
+		entry.setDateOfDeparture(new java.sql.Date(new GregorianCalendar(2030, 0, 1).getTimeInMillis()));
+		entry.setPassengerFirstName("John");
+		entry.setPassengerLastName("Doe");
+		entry.setPassengerEmail("john@example.com");
+		entry.setPassengerPhone("555");
+		return entry;
+	}
+}
@@ -0,0 +1,79 @@
+package com.demiglace.location.controllers;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.demiglace.location.dto.BulkJob;
+import com.demiglace.location.dto.LocationBulkChange;
+import com.demiglace.location.service.LocationBulkService;
+
+@RestController
+@RequestMapping("/locations")
+public class LocationBulkController {
+	@Autowired
+	LocationBulkService bulkService;
+
+	// the request body is the file itself, e.g. curl --data-binary @airports.csv
+	@PostMapping("/import")
+	public ResponseEntity<BulkJob> importLocations(HttpServletRequest request,
+			@RequestParam(value = "format", defaultValue = LocationBulkService.CSV) String format) throws IOException {
+		if (!LocationBulkService.isSupported(format)) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(bulkService.importLocations(request.getInputStream(), format));
+	}
+
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportLocations(
+			@RequestParam(value = "format", defaultValue = LocationBulkService.CSV) String format) {
+		if (!LocationBulkService.isSupported(format)) {
+			return ResponseEntity.badRequest().build();
+		}
+		StreamingResponseBody body = out -> bulkService.exportLocations(out, format);
+		return ResponseEntity.ok()
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"locations." + format.toLowerCase() + "\"")
+				.contentType(MediaType.parseMediaType(LocationBulkService.contentType(format))).body(body);
+	}
+
+	// {"ids": [...]} or {"type": "..."}, plus the newType to set
+	@PostMapping("/bulk/update")
+	public ResponseEntity<BulkJob> updateLocations(@RequestBody LocationBulkChange change) {
+		if (!isValid(change) || change.getNewType() == null || change.getNewType().trim().isEmpty()) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(bulkService.updateLocations(change));
+	}
+
+	@PostMapping("/bulk/delete")
+	public ResponseEntity<BulkJob> deleteLocations(@RequestBody LocationBulkChange change) {
+		if (!isValid(change)) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(bulkService.deleteLocations(change));
+	}
+
+	// progress of running bulk jobs
+	@GetMapping("/bulk/jobs")
+	public List<BulkJob> getJobs() {
+		return bulkService.getJobs();
+	}
+
+	// exactly one way of choosing the locations
+	private static boolean isValid(LocationBulkChange change) {
+		return (change.getIds() == null) != (change.getType() == null);
+	}
+}
@@ -1,20 +1,42 @@
 package com.demiglace.location.controllers;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
-import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.ModelMap;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 import com.demiglace.location.entities.Location;
-import com.demiglace.location.repos.LocationRepository;
+import com.demiglace.location.service.LocationListVersion;
 import com.demiglace.location.service.LocationService;
-import com.demiglace.location.util.EmailUtil;
+import com.demiglace.location.service.LocationTypeCounter;
 import com.demiglace.location.util.ReportUtil;
 
 @Controller
@@ -24,16 +46,22 @@ public class LocationController {
 	LocationService service;
 	
 	@Autowired
-	LocationRepository repository;
+	LocationTypeCounter typeCounter;
 	
 	@Autowired
 	ReportUtil reportUtil;
 	
 	@Autowired
-	ServletContext sc;
-	
-	@Autowired
-	EmailUtil emailUtil;
+	LocationListVersion listVersion;
+
+	private static final String DEFAULT_PAGE_SIZE = "20";
+
+	@Value("${com.demiglace.location.rest.maxpagesize}")
+	private int MAX_PAGE_SIZE;
+
+	// blank turns the notification off
+	@Value("${com.demiglace.location.notification.to}")
+	private String NOTIFICATION_TO;
 	
 	@RequestMapping("/showCreate")
 	public String showCreate() {
@@ -42,55 +70,140 @@ public class LocationController {
 	
 	@RequestMapping("/saveLoc")
 	public String saveLocation(@ModelAttribute("location") Location location, ModelMap modelMap) {
-		Location locationSaved = service.saveLocation(location);
+		// the email is queued with the location, the request doesn't wait for SMTP
+		Location locationSaved = service.saveLocation(location, NOTIFICATION_TO);
 		String msg = "Location saved with id: " + locationSaved.getId();
 		modelMap.addAttribute("msg", msg);
-		
-		// send email
-		// emailUtil.sendEmail("springxyzabc@gmail.com", "Location Saved", "Location Saved successfully");
 		return "createLocation";
 	}
 	
+	// one page at a time, unchanged pages are answered with 304 from the list version
 	@RequestMapping("/displayLocations")
-	public String displayLocations(ModelMap modelMap) {
-		List<Location> locations = service.getAllLocations();
-		modelMap.addAttribute("locations", locations);
+	public String displayLocations(@RequestParam(value = "page", defaultValue = "0") int page,
+			@RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size, WebRequest request,
+			HttpServletResponse response, ModelMap modelMap) {
+		size = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+		// the tag is read before the page, a change committed in between only costs one more render
+		if (request.checkNotModified("\"" + listVersion.get() + "\"")) {
+			return null;
+		}
+		response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+		Page<Location> locations = service.getLocations(PageRequest.of(Math.max(page, 0), size, Sort.by("id")));
+		// the last rows of the last page were deleted, step back to what is left
+		if (locations.getNumber() > 0 && locations.getNumber() >= locations.getTotalPages()) {
+			return listPage(Math.max(locations.getTotalPages() - 1, 0), size);
+		}
+		modelMap.addAttribute("locations", locations.getContent());
+		modelMap.addAttribute("page", locations);
 		return "displayLocations";
 	}
 	
 	@RequestMapping("/deleteLocation")
-	public String deleteLocation(@RequestParam("id") int id, ModelMap modelMap) {
+	public String deleteLocation(@RequestParam("id") int id, @RequestParam(value = "page", defaultValue = "0") int page,
+			@RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
 		// Location location = service.getLocationById(id);
 		// more efficient:
 		Location location = new Location();
 		location.setId(id);
 		service.deleteLocation(location);
-		
-		List<Location> locations = service.getAllLocations();
-		modelMap.addAttribute("locations", locations);
-		return "displayLocations";
+		return listPage(page, size);
 	}
 	
 	@RequestMapping("/showUpdate")
-	public String showUpdate(@RequestParam("id") int id, ModelMap modelMap) {
+	public String showUpdate(@RequestParam("id") int id, @RequestParam(value = "page", defaultValue = "0") int page,
+			@RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size, ModelMap modelMap) {
 		Location location = service.getLocationById(id);
 		modelMap.addAttribute("location", location);
+		modelMap.addAttribute("page", page);
+		modelMap.addAttribute("size", size);
 		return "updateLocation";
 	}
 
 	@RequestMapping("/updateLoc")
-	public String updateLocation(@ModelAttribute("location") Location location, ModelMap modelMap) {
+	public String updateLocation(@ModelAttribute("location") Location location,
+			@RequestParam(value = "page", defaultValue = "0") int page,
+			@RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size) {
 		service.updateLocation(location);
-		List<Location> locations = service.getAllLocations();
-		modelMap.addAttribute("locations", locations);
-		return "displayLocations";
+		return listPage(page, size);
+	}
+
+	// back to the page the change was made from instead of rendering the list again here
+	private String listPage(int page, int size) {
+		return "redirect:/displayLocations?page=" + page + "&size=" + size;
 	}
 	
 	@RequestMapping("/generateReport")
 	public String generateReport() {
-		String path = sc.getRealPath("/");		
-		List<Object[]> data = repository.findTypeAndTypeCount();
-		reportUtil.generatePieChart(null, data);
 		return "report";
 	}
+
+	// the chart is only rendered again when the counts change, browsers revalidate with the ETag
+	@RequestMapping("/pieChart.jpeg")
+	public CompletableFuture<ResponseEntity<byte[]>> pieChart(
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		return report(ReportUtil.PIE, ifNoneMatch);
+	}
+
+	// pie, bar, csv or pdf
+	@RequestMapping("/reports/{format}")
+	public CompletableFuture<ResponseEntity<byte[]>> report(@PathVariable("format") String format,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		if (!ReportUtil.isSupported(format)) {
+			return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+		}
+		List<Object[]> data = typeCounter.getTypeCounts();
+		String etag = "\"" + reportUtil.datasetHash(data) + "-" + format + "\"";
+		if (etag.equals(ifNoneMatch)) {
+			return CompletableFuture.completedFuture(
+					ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build());
+		}
+		return reportUtil.generateReport(data, format).thenApply(report -> ResponseEntity.ok().eTag(etag)
+				.cacheControl(CacheControl.noCache()).contentType(MediaType.parseMediaType(ReportUtil.contentType(format)))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + ReportUtil.fileName(format) + "\"")
+				.body(report));
+	}
+
+	// several formats at once from the same counts, rendered in parallel and zipped; the tag covers the
+	// counts and the formats in the order asked for, which is the order of the entries
+	@RequestMapping("/reports.zip")
+	public CompletableFuture<ResponseEntity<byte[]>> reports(
+			@RequestParam(value = "formats", defaultValue = "pie,bar,csv,pdf") List<String> formats,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+		if (formats.isEmpty() || !formats.stream().allMatch(ReportUtil::isSupported)) {
+			return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+		}
+		List<String> distinct = formats.stream().distinct().collect(Collectors.toList());
+		List<Object[]> data = typeCounter.getTypeCounts();
+		String etag = "\"" + reportUtil.datasetHash(data) + "-" + String.join("+", distinct) + "\"";
+		if (etag.equals(ifNoneMatch)) {
+			return CompletableFuture.completedFuture(
+					ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build());
+		}
+		Map<String, CompletableFuture<byte[]>> reports = reportUtil.generateReports(data, distinct);
+		return CompletableFuture.allOf(reports.values().toArray(new CompletableFuture[0])).thenApply(done -> {
+			ByteArrayOutputStream zip = new ByteArrayOutputStream();
+			try (ZipOutputStream out = new ZipOutputStream(zip)) {
+				for (Map.Entry<String, CompletableFuture<byte[]>> report : reports.entrySet()) {
+					ZipEntry entry = new ZipEntry(ReportUtil.fileName(report.getKey()));
+					// a fixed time, the same reports always zip to the same bytes
+					entry.setTime(0);
+					out.putNextEntry(entry);
+					out.write(report.getValue().join());
+					out.closeEntry();
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache())
+					.contentType(MediaType.parseMediaType("application/zip"))
+					.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"location-reports.zip\"")
+					.body(zip.toByteArray());
+		});
+	}
+
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity<String> reportsBusy() {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+				.body("Reports are busy, please retry in a moment");
+	}
 }
@@ -1,48 +1,192 @@
 package com.demiglace.location.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.demiglace.location.dto.LocationChanges;
+import com.demiglace.location.dto.LocationDistance;
+import com.demiglace.location.dto.LocationKeysetPage;
 import com.demiglace.location.entities.Location;
-import com.demiglace.location.repos.LocationRepository;
+import com.demiglace.location.search.LocationGeoIndex;
+import com.demiglace.location.search.LocationSearchIndex;
+import com.demiglace.location.service.LocationChangeFeed;
+import com.demiglace.location.service.LocationService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 @RestController
 @RequestMapping("/locations")
 public class LocationRESTController {
+	private static final int STREAM_FLUSH_ROWS = 1000;
+
+	@Autowired
+	LocationService service;
+
+	@Autowired
+	LocationSearchIndex searchIndex;
+
+	@Autowired
+	LocationGeoIndex geoIndex;
+
+	@Autowired
+	LocationChangeFeed changeFeed;
+
 	@Autowired
-	LocationRepository locationRepository;
+	ObjectMapper objectMapper;
+
+	@Value("${com.demiglace.location.rest.maxpagesize}")
+	private int MAX_PAGE_SIZE;
 	
 	@GetMapping
 	public List<Location> getLocations() {
-		return locationRepository.findAll();
+		return service.getAllLocations();
+	}
+
+	@GetMapping(params = "page")
+	public Page<Location> getLocationsPage(@RequestParam("page") int page,
+			@RequestParam(value = "size", defaultValue = "50") int size) {
+		return service.getLocations(PageRequest.of(Math.max(0, page), pageSize(size), Sort.by("id")));
+	}
+
+	// cost doesn't grow with the page number, unlike page=
+	@GetMapping(params = "limit")
+	public LocationKeysetPage getLocationsAfter(@RequestParam(value = "after", required = false) Integer after,
+			@RequestParam("limit") int limit) {
+		int size = pageSize(limit);
+		List<Location> locations = service.getLocationsAfter(after != null ? after : Integer.MIN_VALUE, size);
+		LocationKeysetPage keysetPage = new LocationKeysetPage();
+		keysetPage.setLocations(locations);
+		if (locations.size() == size) {
+			keysetPage.setNext(locations.get(locations.size() - 1).getId());
+		}
+		return keysetPage;
+	}
+
+	// between 1 and the max page size, PageRequest rejects anything below 1
+	private int pageSize(int size) {
+		return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+	}
+
+	// the whole table as a JSON array, written while it is read
+	@GetMapping("/stream")
+	public ResponseEntity<StreamingResponseBody> streamLocations() {
+		ObjectWriter writer = objectMapper.writerFor(Location.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		StreamingResponseBody body = out -> {
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+				generator.writeStartArray();
+				int[] rows = { 0 };
+				service.forEachLocation(location -> {
+					try {
+						writer.writeValue(generator, location);
+						if (++rows[0] % STREAM_FLUSH_ROWS == 0) {
+							generator.flush();
+						}
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+				generator.writeEndArray();
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+	}
+	
+	// for mirrors: everything written after since, deletes included; leave since out to start from scratch
+	@GetMapping("/changes")
+	public LocationChanges getChanges(@RequestParam(value = "since", defaultValue = "-1") long since,
+			@RequestParam(value = "limit", defaultValue = "1000") int limit) {
+		return changeFeed.getChangesSince(since, limit);
+	}
+
+	// the same as a server-sent event stream, a reconnecting client resumes from Last-Event-ID
+	@GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamChanges(@RequestParam(value = "since", required = false) Long since,
+			@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+		return changeFeed.subscribe(lastEventId != null ? lastEventId : since != null ? since : -1);
 	}
 	
 	@PostMapping
 	public Location createLocation(@RequestBody Location location) {
-		return locationRepository.save(location);
+		return service.saveLocation(location);
 	}
 	
 	@PutMapping
 	public Location updateLocation(@RequestBody Location location) {
-		return locationRepository.save(location);
+		return service.updateLocation(location);
 	}
 	
-	@DeleteMapping("/${id}")
+	@DeleteMapping("/{id}")
 	public void deleteLocation(@PathVariable("id") int id) {
-		locationRepository.deleteById(id);
+		Location location = new Location();
+		location.setId(id);
+		service.deleteLocation(location);
 	}
 	
-	@GetMapping("/${id}")
+	@GetMapping("/{id}")
 	public Location getLocation(@PathVariable("id") int id) {
-		return locationRepository.findById(id).get();
+		return service.getLocationById(id);
+	}
+
+	// type-ahead, answered from memory
+	@GetMapping("/search")
+	public List<Location> searchLocations(@RequestParam("q") String prefix,
+			@RequestParam(value = "limit", defaultValue = "10") int limit) {
+		return searchIndex.search(prefix, Math.min(limit, MAX_PAGE_SIZE));
+	}
+
+	@GetMapping("/nearest")
+	public ResponseEntity<List<LocationDistance>> nearestLocations(@RequestParam("lat") double latitude,
+			@RequestParam("lon") double longitude, @RequestParam(value = "k", defaultValue = "10") int k,
+			@RequestParam(value = "type", required = false) String type) {
+		if (!isCoordinate(latitude, longitude) || k < 1) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(geoIndex.nearest(latitude, longitude, Math.min(k, MAX_PAGE_SIZE), type));
+	}
+
+	@GetMapping("/within")
+	public ResponseEntity<List<LocationDistance>> locationsWithin(@RequestParam("lat") double latitude,
+			@RequestParam("lon") double longitude, @RequestParam("radiusKm") double radiusKm,
+			@RequestParam(value = "type", required = false) String type,
+			@RequestParam(value = "limit", defaultValue = "100") int limit) {
+		// the negated check also turns away NaN
+		if (!isCoordinate(latitude, longitude) || !(radiusKm >= 0) || limit < 1) {
+			return ResponseEntity.badRequest().build();
+		}
+		return ResponseEntity.ok(geoIndex.within(latitude, longitude, radiusKm, type, Math.min(limit, MAX_PAGE_SIZE)));
+	}
+
+	private static boolean isCoordinate(double latitude, double longitude) {
+		return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+	}
+
+	@GetMapping("/code/{code}")
+	public ResponseEntity<Location> getLocationByCode(@PathVariable("code") String code) {
+		Location location = service.getLocationByCode(code);
+		return location != null ? ResponseEntity.ok(location) : ResponseEntity.notFound().build();
 	}
 }
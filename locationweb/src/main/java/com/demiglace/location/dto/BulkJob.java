@@ -0,0 +1,88 @@
+package com.demiglace.location.dto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Progress of one bulk import, export, update or delete, updated by the thread doing the work.
+ */
+public class BulkJob {
+	public static final String RUNNING = "RUNNING";
+	public static final String DONE = "DONE";
+	public static final String FAILED = "FAILED";
+
+	private final String id;
+	private final String kind;
+	private final String format;
+	private final Date startedAt = new Date();
+	private volatile String status = RUNNING;
+	private volatile long rows;
+	private volatile long rejected;
+	private volatile long millis;
+	private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+	public BulkJob(String id, String kind, String format) {
+		this.id = id;
+		this.kind = kind;
+		this.format = format;
+	}
+
+	public void rowDone() {
+		rows++;
+	}
+
+	public void rowsDone(int count) {
+		rows += count;
+	}
+
+	// only the first few errors are kept, a bad file shouldn't fill the heap
+	public void rowRejected(String error, int maxErrors) {
+		rejected++;
+		if (errors.size() < maxErrors) {
+			errors.add(error);
+		}
+	}
+
+	public void finish(String status) {
+		this.status = status;
+		this.millis = System.currentTimeMillis() - startedAt.getTime();
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getKind() {
+		return kind;
+	}
+
+	public String getFormat() {
+		return format;
+	}
+
+	public Date getStartedAt() {
+		return startedAt;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public long getMillis() {
+		return RUNNING.equals(status) ? System.currentTimeMillis() - startedAt.getTime() : millis;
+	}
+
+	public List<String> getErrors() {
+		return errors;
+	}
+}
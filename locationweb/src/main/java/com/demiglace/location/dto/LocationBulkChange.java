@@ -0,0 +1,37 @@
+package com.demiglace.location.dto;
+
+import java.util.List;
+
+/**
+ * Picks the locations of a bulk update or delete, either by id or by type, and what to set.
+ */
+public class LocationBulkChange {
+	private List<Integer> ids;
+	private String type;
+	// only read by updates
+	private String newType;
+
+	public List<Integer> getIds() {
+		return ids;
+	}
+
+	public void setIds(List<Integer> ids) {
+		this.ids = ids;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public void setType(String type) {
+		this.type = type;
+	}
+
+	public String getNewType() {
+		return newType;
+	}
+
+	public void setNewType(String newType) {
+		this.newType = newType;
+	}
+}
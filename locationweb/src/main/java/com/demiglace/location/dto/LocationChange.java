@@ -0,0 +1,53 @@
+package com.demiglace.location.dto;
+
+import com.demiglace.location.entities.Location;
+
+public class LocationChange {
+	private long version;
+	private int id;
+	private boolean deleted;
+	// the location as it is now, null for a delete
+	private Location location;
+
+	public LocationChange() {
+	}
+
+	public LocationChange(long version, int id, boolean deleted, Location location) {
+		this.version = version;
+		this.id = id;
+		this.deleted = deleted;
+		this.location = location;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
+
+	public boolean isDeleted() {
+		return deleted;
+	}
+
+	public void setDeleted(boolean deleted) {
+		this.deleted = deleted;
+	}
+
+	public Location getLocation() {
+		return location;
+	}
+
+	public void setLocation(Location location) {
+		this.location = location;
+	}
+}
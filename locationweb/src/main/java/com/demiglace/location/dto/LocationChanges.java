@@ -0,0 +1,35 @@
+package com.demiglace.location.dto;
+
+import java.util.List;
+
+public class LocationChanges {
+	private List<LocationChange> changes;
+	// pass as since= next time, also when there were no changes
+	private long next;
+	// more changes are waiting, ask again right away
+	private boolean more;
+
+	public List<LocationChange> getChanges() {
+		return changes;
+	}
+
+	public void setChanges(List<LocationChange> changes) {
+		this.changes = changes;
+	}
+
+	public long getNext() {
+		return next;
+	}
+
+	public void setNext(long next) {
+		this.next = next;
+	}
+
+	public boolean isMore() {
+		return more;
+	}
+
+	public void setMore(boolean more) {
+		this.more = more;
+	}
+}
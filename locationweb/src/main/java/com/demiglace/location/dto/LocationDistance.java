@@ -0,0 +1,21 @@
+package com.demiglace.location.dto;
+
+import com.demiglace.location.entities.Location;
+
+public class LocationDistance {
+	private Location location;
+	private double distanceKm;
+
+	public LocationDistance(Location location, double distanceKm) {
+		this.location = location;
+		this.distanceKm = distanceKm;
+	}
+
+	public Location getLocation() {
+		return location;
+	}
+
+	public double getDistanceKm() {
+		return distanceKm;
+	}
+}
@@ -0,0 +1,27 @@
+package com.demiglace.location.dto;
+
+import java.util.List;
+
+import com.demiglace.location.entities.Location;
+
+public class LocationKeysetPage {
+	private List<Location> locations;
+	// pass as after= for the next page, null on the last page
+	private Integer next;
+
+	public List<Location> getLocations() {
+		return locations;
+	}
+
+	public void setLocations(List<Location> locations) {
+		this.locations = locations;
+	}
+
+	public Integer getNext() {
+		return next;
+	}
+
+	public void setNext(Integer next) {
+		this.next = next;
+	}
+}
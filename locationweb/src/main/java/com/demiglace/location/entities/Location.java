@@ -2,14 +2,22 @@ package com.demiglace.location.entities;
 
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
 
 @Entity
+@Table(indexes = @Index(name = "location_version", columnList = "version"))
 public class Location {
 	@Id
 	private int id;
 	private String code;
 	private String name;
 	private String type;
+	// degrees, null when the location has no coordinates yet
+	private Double latitude;
+	private Double longitude;
+	// change version of the last write, set by the service, see LocationVersions
+	private long version;
 
 	public int getId() {
 		return id;
@@ -43,8 +51,33 @@ public class Location {
 		this.type = type;
 	}
 
+	public Double getLatitude() {
+		return latitude;
+	}
+
+	public void setLatitude(Double latitude) {
+		this.latitude = latitude;
+	}
+
+	public Double getLongitude() {
+		return longitude;
+	}
+
+	public void setLongitude(Double longitude) {
+		this.longitude = longitude;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
 	@Override
 	public String toString() {
-		return "Location [id=" + id + ", code=" + code + ", name=" + name + ", type=" + type + "]";
+		return "Location [id=" + id + ", code=" + code + ", name=" + name + ", type=" + type + ", latitude="
+				+ latitude + ", longitude=" + longitude + ", version=" + version + "]";
 	}
 }
@@ -0,0 +1,45 @@
+package com.demiglace.location.entities;
+
+import java.util.Date;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * Left behind when a location is deleted, so the change feed can tell mirrors about it.
+ */
+@Entity
+@Table(name = "location_tombstone", indexes = @Index(name = "location_tombstone_version", columnList = "version"))
+public class LocationTombstone {
+	// id of the deleted location, a later delete of the same id replaces the row
+	@Id
+	private int id;
+	private long version;
+	private Date deletedAt;
+
+	public int getId() {
+		return id;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+	public Date getDeletedAt() {
+		return deletedAt;
+	}
+
+	public void setDeletedAt(Date deletedAt) {
+		this.deletedAt = deletedAt;
+	}
+}
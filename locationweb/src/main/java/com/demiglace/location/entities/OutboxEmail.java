@@ -0,0 +1,123 @@
+package com.demiglace.location.entities;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * A mail waiting to be sent, sent, or given up on.
+ */
+@Entity
+@Table(name = "email_outbox")
+public class OutboxEmail {
+	public static final String PENDING = "PENDING";
+	public static final String SENT = "SENT";
+	// failed maxattempts times, kept for someone to look at
+	public static final String DEAD = "DEAD";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	private String toAddress;
+	private String subject;
+	@Column(length = 4000)
+	private String body;
+	private String status;
+	private int attempts;
+	private Date nextAttemptAt;
+	@Column(length = 1000)
+	private String lastError;
+	private Date createdAt;
+	private Date sentAt;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getToAddress() {
+		return toAddress;
+	}
+
+	public void setToAddress(String toAddress) {
+		this.toAddress = toAddress;
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public void setSubject(String subject) {
+		this.subject = subject;
+	}
+
+	public String getBody() {
+		return body;
+	}
+
+	public void setBody(String body) {
+		this.body = body;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public Date getNextAttemptAt() {
+		return nextAttemptAt;
+	}
+
+	public void setNextAttemptAt(Date nextAttemptAt) {
+		this.nextAttemptAt = nextAttemptAt;
+	}
+
+	public String getLastError() {
+		return lastError;
+	}
+
+	public void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+
+	public Date getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Date createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public Date getSentAt() {
+		return sentAt;
+	}
+
+	public void setSentAt(Date sentAt) {
+		this.sentAt = sentAt;
+	}
+
+	@Override
+	public String toString() {
+		return "OutboxEmail [id=" + id + ", toAddress=" + toAddress + ", subject=" + subject + ", status=" + status
+				+ ", attempts=" + attempts + "]";
+	}
+}
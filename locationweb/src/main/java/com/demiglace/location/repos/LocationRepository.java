@@ -1,7 +1,9 @@
 package com.demiglace.location.repos;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
@@ -9,6 +11,18 @@ import org.springframework.data.repository.CrudRepository;
 import com.demiglace.location.entities.Location;
 
 public interface LocationRepository extends JpaRepository<Location, Integer> {
-	@Query(value="SELECT type, COUNT(*) FROM vendor GROUP BY type", nativeQuery=true)
+	@Query(value="SELECT type, COUNT(*) FROM location GROUP BY type", nativeQuery=true)
 	public List<Object[]> findTypeAndTypeCount();
+
+	// keyset paging, seeks on the primary key instead of skipping OFFSET rows
+	public List<Location> findByIdGreaterThanOrderByIdAsc(int id, Pageable pageable);
+
+	public Optional<Location> findFirstByCode(String code);
+
+	// the change feed, rows written after since and settled by upTo
+	public List<Location> findByVersionGreaterThanAndVersionLessThanEqualOrderByVersionAsc(long since, long upTo,
+			Pageable pageable);
+
+	@Query("SELECT COALESCE(MAX(l.version), 0) FROM Location l")
+	public long findMaxVersion();
 }
@@ -0,0 +1,17 @@
+package com.demiglace.location.repos;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import com.demiglace.location.entities.LocationTombstone;
+
+public interface LocationTombstoneRepository extends JpaRepository<LocationTombstone, Integer> {
+	public List<LocationTombstone> findByVersionGreaterThanAndVersionLessThanEqualOrderByVersionAsc(long since,
+			long upTo, Pageable pageable);
+
+	@Query("SELECT COALESCE(MAX(t.version), 0) FROM LocationTombstone t")
+	public long findMaxVersion();
+}
@@ -0,0 +1,16 @@
+package com.demiglace.location.repos;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.demiglace.location.entities.OutboxEmail;
+
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+	public List<OutboxEmail> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(String status, Date now,
+			Pageable pageable);
+
+	public long countByStatus(String status);
+}
@@ -0,0 +1,18 @@
+package com.demiglace.location.search;
+
+import java.util.List;
+
+import com.demiglace.location.dto.LocationDistance;
+
+/**
+ * Nearest and within-radius queries over location coordinates, served from memory.
+ * Distances are great-circle kilometres; type may be null for every type.
+ */
+public interface LocationGeoIndex {
+	List<LocationDistance> nearest(double latitude, double longitude, int k, String type);
+
+	// closest first, at most limit results
+	List<LocationDistance> within(double latitude, double longitude, double radiusKm, String type, int limit);
+
+	int size();
+}
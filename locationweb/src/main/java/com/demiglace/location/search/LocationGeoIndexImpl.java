@@ -0,0 +1,225 @@
+package com.demiglace.location.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.demiglace.location.dto.LocationDistance;
+import com.demiglace.location.entities.Location;
+
+/**
+ * Grid of CELL_SIZE x CELL_SIZE degree cells. A radius search only reads the cells of the
+ * rows and columns the circle can reach, then measures the points in them.
+ */
+@Component
+public class LocationGeoIndexImpl extends ReplayingIndex<LocationGeoIndexImpl.Grid> implements LocationGeoIndex {
+	static final double EARTH_RADIUS_KM = 6371.0088;
+	private static final double HALF_CIRCUMFERENCE_KM = Math.PI * EARTH_RADIUS_KM;
+	private static final Point[] EMPTY = new Point[0];
+
+	@Value("${com.demiglace.location.geo.cellsize}")
+	private double CELL_SIZE;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationGeoIndexImpl.class);
+
+	public LocationGeoIndexImpl() {
+	}
+
+	LocationGeoIndexImpl(double cellSize) {
+		this.CELL_SIZE = cellSize;
+	}
+
+	// everything within a radius is exact, so once a radius holds k matches they are the k nearest;
+	// the radius starts at one cell and doubles, which costs at most twice the last search
+	@Override
+	public List<LocationDistance> nearest(double latitude, double longitude, int k, String type) {
+		double radiusKm = Math.toRadians(CELL_SIZE) * EARTH_RADIUS_KM;
+		while (true) {
+			List<LocationDistance> found = within(latitude, longitude, radiusKm, type, k);
+			if (found.size() >= k || radiusKm >= HALF_CIRCUMFERENCE_KM) {
+				return found;
+			}
+			radiusKm *= 2;
+		}
+	}
+
+	@Override
+	public List<LocationDistance> within(double latitude, double longitude, double radiusKm, String type, int limit) {
+		if (limit <= 0) {
+			return new ArrayList<>();
+		}
+		Grid current = index();
+		double latDegrees = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+		int fromRow = current.latCell(latitude - latDegrees);
+		int toRow = current.latCell(latitude + latDegrees);
+		double poleward = Math.min(90, Math.abs(latitude) + latDegrees);
+		// haversine: sin(d/2R)^2 >= cos(lat1) cos(lat2) sin(dLon/2)^2, so this bounds dLon
+		double sinHalfLon = Math.sin(Math.min(Math.PI, radiusKm / EARTH_RADIUS_KM) / 2)
+				/ Math.sqrt(Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(poleward)));
+		int fromColumn;
+		int toColumn;
+		if (Double.isNaN(sinHalfLon) || sinHalfLon >= 1) {
+			// reaches a pole or all the way round, every column
+			fromColumn = 0;
+			toColumn = current.lonCells - 1;
+		} else {
+			double lonDegrees = Math.toDegrees(2 * Math.asin(sinHalfLon));
+			fromColumn = (int) Math.floor((longitude - lonDegrees + 180) / current.cellSize);
+			toColumn = (int) Math.floor((longitude + lonDegrees + 180) / current.cellSize);
+			toColumn = Math.min(toColumn, fromColumn + current.lonCells - 1);
+		}
+		List<LocationDistance> found = new ArrayList<>();
+		for (int row = fromRow; row <= toRow; row++) {
+			for (int column = fromColumn; column <= toColumn; column++) {
+				for (Point point : current.cell(row, column)) {
+					if (type != null && !type.equals(point.location.getType())) {
+						continue;
+					}
+					double distance = distanceKm(latitude, longitude, point.latitude, point.longitude);
+					if (distance <= radiusKm) {
+						found.add(new LocationDistance(point.location, distance));
+					}
+				}
+			}
+		}
+		List<LocationDistance> closest = sorted(found);
+		return closest.size() > limit ? new ArrayList<>(closest.subList(0, limit)) : closest;
+	}
+
+	@Override
+	public int size() {
+		return index().size();
+	}
+
+	@Override
+	Grid empty() {
+		return new Grid(CELL_SIZE);
+	}
+
+	@Override
+	Grid load(Consumer<Consumer<Location>> source) {
+		Grid fresh = new Grid(CELL_SIZE);
+		source.accept(location -> fresh.apply(null, location));
+		return fresh;
+	}
+
+	@Override
+	void apply(Grid grid, Location previous, Location current) {
+		grid.apply(previous, current);
+	}
+
+	@Override
+	void built(Grid grid, long millis) {
+		LOGGER.info("geo index built with {} located locations in {} ms", grid.size(), millis);
+	}
+
+	private static List<LocationDistance> sorted(List<LocationDistance> distances) {
+		distances.sort(Comparator.comparingDouble(LocationDistance::getDistanceKm));
+		return distances;
+	}
+
+	// haversine
+	static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+		double dLat = Math.toRadians(lat2 - lat1);
+		double dLon = Math.toRadians(lon2 - lon1);
+		double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) + Math.cos(Math.toRadians(lat1))
+				* Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+		return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+	}
+
+	private static class Point {
+		final double latitude;
+		final double longitude;
+		final Location location;
+
+		Point(Location location) {
+			this.latitude = location.getLatitude();
+			this.longitude = location.getLongitude();
+			this.location = location;
+		}
+	}
+
+	static class Grid {
+		final double cellSize;
+		final int latCells;
+		final int lonCells;
+		// cells are copied on write, readers never see one half updated
+		final Map<Long, Point[]> cells = new ConcurrentHashMap<>();
+
+		Grid(double cellSize) {
+			this.cellSize = cellSize;
+			this.latCells = (int) Math.ceil(180 / cellSize);
+			this.lonCells = (int) Math.ceil(360 / cellSize);
+		}
+
+		void apply(Location previous, Location current) {
+			if (previous != null && hasCoordinates(previous)) {
+				cells.computeIfPresent(key(latCell(previous.getLatitude()), lonCell(previous.getLongitude())),
+						(key, points) -> without(points, previous.getId()));
+			}
+			if (current != null && hasCoordinates(current)) {
+				Point point = new Point(current);
+				cells.compute(key(latCell(point.latitude), lonCell(point.longitude)), (key, points) -> {
+					Point[] kept = points == null ? EMPTY : without(points, current.getId());
+					Point[] added = Arrays.copyOf(kept, kept.length + 1);
+					added[kept.length] = point;
+					return added;
+				});
+			}
+		}
+
+		Point[] cell(int row, int column) {
+			Point[] points = cells.get(key(row, Math.floorMod(column, lonCells)));
+			return points != null ? points : EMPTY;
+		}
+
+		int latCell(double latitude) {
+			return Math.min(latCells - 1, Math.max(0, (int) Math.floor((latitude + 90) / cellSize)));
+		}
+
+		int lonCell(double longitude) {
+			return Math.floorMod((int) Math.floor((longitude + 180) / cellSize), lonCells);
+		}
+
+		int size() {
+			int size = 0;
+			for (Point[] points : cells.values()) {
+				size += points.length;
+			}
+			return size;
+		}
+
+		private long key(int row, int column) {
+			return (long) row * lonCells + column;
+		}
+
+		// null when the cell ends up empty, which removes it from the map
+		private static Point[] without(Point[] points, int id) {
+			for (int i = 0; i < points.length; i++) {
+				if (points[i].location.getId() == id) {
+					if (points.length == 1) {
+						return null;
+					}
+					Point[] kept = new Point[points.length - 1];
+					System.arraycopy(points, 0, kept, 0, i);
+					System.arraycopy(points, i + 1, kept, i, points.length - i - 1);
+					return kept;
+				}
+			}
+			return points;
+		}
+
+		private static boolean hasCoordinates(Location location) {
+			return location.getLatitude() != null && location.getLongitude() != null;
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package com.demiglace.location.search;
+
+import java.util.List;
+
+import com.demiglace.location.entities.Location;
+
+/**
+ * Type-ahead over location codes and names, served from memory.
+ */
+public interface LocationSearchIndex {
+	// case and accent insensitive, code matches first, then names, then words within names
+	List<Location> search(String prefix, int limit);
+
+	int size();
+}
@@ -0,0 +1,181 @@
+package com.demiglace.location.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.demiglace.location.entities.Location;
+
+/**
+ * Sorted maps of normalized code, name and name word to location. A prefix is a
+ * range of each map, so a lookup is a seek plus as many steps as results wanted.
+ */
+@Component
+public class LocationSearchIndexImpl extends ReplayingIndex<LocationSearchIndexImpl.Index>
+		implements LocationSearchIndex {
+	private static final char ID_SEPARATOR = '\u0000';
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+	private static final Pattern WORD_SEPARATORS = Pattern.compile("[\\s\\-/,.()']+");
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationSearchIndexImpl.class);
+
+	@Override
+	public List<Location> search(String prefix, int limit) {
+		String term = normalize(prefix);
+		Map<Integer, Location> results = new LinkedHashMap<>();
+		if (term.isEmpty() || limit <= 0) {
+			return new ArrayList<>();
+		}
+		Index current = index();
+		collect(current.codes, term, limit, results);
+		collect(current.names, term, limit, results);
+		collect(current.words, term, limit, results);
+		return new ArrayList<>(results.values());
+	}
+
+	@Override
+	public int size() {
+		return index().names.size();
+	}
+
+	@Override
+	Index empty() {
+		return new Index();
+	}
+
+	@Override
+	Index load(Consumer<Consumer<Location>> source) {
+		IndexBuilder builder = new IndexBuilder();
+		source.accept(builder::add);
+		return builder.build();
+	}
+
+	@Override
+	void apply(Index index, Location previous, Location current) {
+		index.apply(previous, current);
+	}
+
+	@Override
+	void built(Index index, long millis) {
+		LOGGER.info("search index built with {} locations in {} ms", index.names.size(), millis);
+	}
+
+	// the range from term to term + Character.MAX_VALUE holds every key starting with term
+	private static void collect(ConcurrentSkipListMap<String, Location> map, String term, int limit,
+			Map<Integer, Location> results) {
+		for (Location location : map.subMap(term, term + Character.MAX_VALUE).values()) {
+			if (results.size() >= limit) {
+				return;
+			}
+			results.putIfAbsent(location.getId(), location);
+		}
+	}
+
+	static String normalize(String value) {
+		if (value == null) {
+			return "";
+		}
+		String trimmed = value.trim();
+		if (isAscii(trimmed)) {
+			return trimmed.toLowerCase(Locale.ROOT);
+		}
+		String decomposed = Normalizer.normalize(trimmed, Normalizer.Form.NFD);
+		return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+
+	// most codes and names have nothing to strip
+	private static boolean isAscii(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			if (value.charAt(i) >= 0x80) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	static class Index {
+		final ConcurrentSkipListMap<String, Location> codes;
+		final ConcurrentSkipListMap<String, Location> names;
+		final ConcurrentSkipListMap<String, Location> words;
+
+		Index() {
+			this(new ConcurrentSkipListMap<>(), new ConcurrentSkipListMap<>(), new ConcurrentSkipListMap<>());
+		}
+
+		Index(ConcurrentSkipListMap<String, Location> codes, ConcurrentSkipListMap<String, Location> names,
+				ConcurrentSkipListMap<String, Location> words) {
+			this.codes = codes;
+			this.names = names;
+			this.words = words;
+		}
+
+		void apply(Location previous, Location current) {
+			if (previous != null) {
+				String name = normalize(previous.getName());
+				codes.remove(key(normalize(previous.getCode()), previous));
+				names.remove(key(name, previous));
+				for (String word : laterWords(name)) {
+					words.remove(key(word, previous));
+				}
+			}
+			if (current != null) {
+				String name = normalize(current.getName());
+				codes.put(key(normalize(current.getCode()), current), current);
+				names.put(key(name, current), current);
+				for (String word : laterWords(name)) {
+					words.put(key(word, current), current);
+				}
+			}
+		}
+
+		// the first word is already covered by the name itself
+		static List<String> laterWords(String normalizedName) {
+			List<String> laterWords = new ArrayList<>();
+			String[] split = WORD_SEPARATORS.split(normalizedName);
+			for (int i = 1; i < split.length; i++) {
+				if (!split[i].isEmpty()) {
+					laterWords.add(split[i]);
+				}
+			}
+			return laterWords;
+		}
+
+		static String key(String normalizedTerm, Location location) {
+			return normalizedTerm + ID_SEPARATOR + location.getId();
+		}
+	}
+
+	// the TreeMaps are real sorted maps, so the skip lists are loaded from them in order in one pass,
+	// several times faster than inserting a whole table at random positions
+	private static class IndexBuilder {
+		// a location read twice replaces its own key
+		final TreeMap<String, Location> codes = new TreeMap<>();
+		final TreeMap<String, Location> names = new TreeMap<>();
+		final TreeMap<String, Location> words = new TreeMap<>();
+
+		void add(Location location) {
+			String name = normalize(location.getName());
+			codes.put(Index.key(normalize(location.getCode()), location), location);
+			names.put(Index.key(name, location), location);
+			for (String word : Index.laterWords(name)) {
+				words.put(Index.key(word, location), location);
+			}
+		}
+
+		Index build() {
+			return new Index(new ConcurrentSkipListMap<>(codes), new ConcurrentSkipListMap<>(names),
+					new ConcurrentSkipListMap<>(words));
+		}
+	}
+}
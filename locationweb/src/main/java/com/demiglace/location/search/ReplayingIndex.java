@@ -0,0 +1,113 @@
+package com.demiglace.location.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+
+import com.demiglace.location.entities.Location;
+import com.demiglace.location.service.LocationChangeListener;
+import com.demiglace.location.service.LocationService;
+
+/**
+ * In-memory index of the location table kept current by LocationService's change notifications.
+ * A rebuild reads the table into a fresh index while changes keep going to the current one, then
+ * replays those changes onto the fresh index and swaps it in.
+ */
+abstract class ReplayingIndex<T> implements LocationChangeListener {
+	// lazy, LocationService notifies this index so it can't be injected eagerly
+	@Lazy
+	@Autowired
+	private LocationService locationService;
+
+	private volatile T index;
+	// changes made while a rebuild reads the table, replayed onto the new index
+	private List<Location[]> pendingChanges;
+	private final Object pendingLock = new Object();
+	private final Object rebuildLock = new Object();
+	private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+	abstract T empty();
+
+	abstract T load(Consumer<Consumer<Location>> source);
+
+	abstract void apply(T index, Location previous, Location current);
+
+	abstract void built(T index, long millis);
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void build() {
+		rebuild(locationService::forEachLocation);
+	}
+
+	@Override
+	public void locationsReplaced() {
+		build();
+	}
+
+	@Override
+	public void locationChanged(Location previous, Location current) {
+		swapLock.readLock().lock();
+		try {
+			apply(index(), previous, current);
+			synchronized (pendingLock) {
+				if (pendingChanges != null) {
+					pendingChanges.add(new Location[] { previous, current });
+				}
+			}
+		} finally {
+			swapLock.readLock().unlock();
+		}
+	}
+
+	void rebuild(Consumer<Consumer<Location>> source) {
+		synchronized (rebuildLock) {
+			synchronized (pendingLock) {
+				pendingChanges = new ArrayList<>();
+			}
+			T fresh;
+			long start = System.currentTimeMillis();
+			try {
+				fresh = load(source);
+			} catch (RuntimeException e) {
+				synchronized (pendingLock) {
+					pendingChanges = null;
+				}
+				throw e;
+			}
+			swapLock.writeLock().lock();
+			try {
+				synchronized (pendingLock) {
+					for (Location[] change : pendingChanges) {
+						apply(fresh, change[0], change[1]);
+					}
+					pendingChanges = null;
+				}
+				index = fresh;
+			} finally {
+				swapLock.writeLock().unlock();
+			}
+			built(fresh, System.currentTimeMillis() - start);
+		}
+	}
+
+	// empty until the first build, created on first use so subclasses can size it from injected values
+	T index() {
+		T current = index;
+		if (current == null) {
+			synchronized (pendingLock) {
+				if (index == null) {
+					index = empty();
+				}
+				current = index;
+			}
+		}
+		return current;
+	}
+}
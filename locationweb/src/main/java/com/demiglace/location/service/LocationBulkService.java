@@ -0,0 +1,33 @@
+package com.demiglace.location.service;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+import com.demiglace.location.dto.BulkJob;
+import com.demiglace.location.dto.LocationBulkChange;
+
+public interface LocationBulkService {
+	String CSV = "csv";
+	String JSONL = "jsonl";
+
+	BulkJob importLocations(InputStream in, String format);
+
+	BulkJob exportLocations(OutputStream out, String format);
+
+	// sets newType on the chosen locations, rows is how many were changed
+	BulkJob updateLocations(LocationBulkChange change);
+
+	BulkJob deleteLocations(LocationBulkChange change);
+
+	// running jobs and the most recent finished ones
+	List<BulkJob> getJobs();
+
+	static boolean isSupported(String format) {
+		return CSV.equalsIgnoreCase(format) || JSONL.equalsIgnoreCase(format);
+	}
+
+	static String contentType(String format) {
+		return JSONL.equalsIgnoreCase(format) ? "application/x-ndjson" : "text/csv";
+	}
+}
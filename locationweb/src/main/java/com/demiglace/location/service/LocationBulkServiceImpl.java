@@ -0,0 +1,318 @@
+package com.demiglace.location.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demiglace.location.dto.BulkJob;
+import com.demiglace.location.dto.LocationBulkChange;
+import com.demiglace.location.entities.Location;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+@Service
+public class LocationBulkServiceImpl implements LocationBulkService {
+	private static final int KEPT_JOBS = 20;
+	private static final int PROGRESS_ROWS = 50000;
+	private static final String UPSERT = "INSERT INTO location (id, code, name, type, latitude, longitude, version) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE code = VALUES(code), name = VALUES(name), "
+			+ "type = VALUES(type), latitude = VALUES(latitude), longitude = VALUES(longitude), "
+			+ "version = VALUES(version)";
+	private static final CsvSchema CSV_SCHEMA = CsvSchema.builder().addColumn("id").addColumn("code")
+			.addColumn("name").addColumn("type").addColumn("latitude").addColumn("longitude").addColumn("version")
+			.build().withHeader();
+	private static final String CHOSEN = "WHERE id IN (:ids)";
+	private static final String AND_TYPE = " AND type = :type";
+	private static final String NEXT_IDS_OF_TYPE = "SELECT id FROM location WHERE type = ? AND id > ? ORDER BY id LIMIT ?";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private LocationService locationService;
+
+	@Autowired
+	private LocationVersions versions;
+
+	@Autowired
+	private List<LocationChangeListener> listeners;
+
+	@Value("${com.demiglace.location.bulk.batchsize}")
+	private int BATCH_SIZE;
+
+	@Value("${com.demiglace.location.bulk.maxerrors}")
+	private int MAX_ERRORS;
+
+	// empty latitude and longitude cells mean no coordinates
+	private final CsvMapper csvMapper = CsvMapper.builder().enable(CsvParser.Feature.EMPTY_STRING_AS_NULL).build();
+	private final Map<String, BulkJob> jobs = new LinkedHashMap<String, BulkJob>() {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, BulkJob> eldest) {
+			return size() > KEPT_JOBS && !BulkJob.RUNNING.equals(eldest.getValue().getStatus());
+		}
+	};
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationBulkServiceImpl.class);
+
+	// rows are read one at a time and written BATCH_SIZE at a time, each batch in its own transaction
+	@Override
+	public BulkJob importLocations(InputStream in, String format) {
+		BulkJob job = startJob("import", format);
+		List<Location> batch = new ArrayList<>(BATCH_SIZE);
+		try (MappingIterator<Location> rows = reader(format).readValues(in)) {
+			while (rows.hasNextValue()) {
+				long line = rows.getCurrentLocation().getLineNr();
+				Location location;
+				try {
+					location = rows.nextValue();
+				} catch (RuntimeException | IOException e) {
+					job.rowRejected("line " + line + ": " + e.getMessage(), MAX_ERRORS);
+					continue;
+				}
+				String error = validate(location);
+				if (error != null) {
+					job.rowRejected("line " + line + ": " + error, MAX_ERRORS);
+					continue;
+				}
+				batch.add(location);
+				if (batch.size() == BATCH_SIZE) {
+					writeBatch(batch, job);
+				}
+			}
+			writeBatch(batch, job);
+			job.finish(BulkJob.DONE);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.error("import {} failed after {} rows", job.getId(), job.getRows(), e);
+			job.finish(BulkJob.FAILED);
+		} finally {
+			// the rows didn't go through LocationService, counts and caches start over once
+			listeners.forEach(LocationChangeListener::locationsReplaced);
+		}
+		LOGGER.info("import {} {}: {} rows, {} rejected in {} ms", job.getId(), job.getStatus(), job.getRows(),
+				job.getRejected(), job.getMillis());
+		return job;
+	}
+
+	@Override
+	public BulkJob exportLocations(OutputStream out, String format) {
+		BulkJob job = startJob("export", format);
+		try (SequenceWriter writer = writer(format, out)) {
+			locationService.forEachLocation(location -> {
+				try {
+					writer.write(location);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				job.rowDone();
+				logProgress(job);
+			});
+			job.finish(BulkJob.DONE);
+		} catch (IOException | RuntimeException e) {
+			job.finish(BulkJob.FAILED);
+			throw e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+		}
+		LOGGER.info("export {} done: {} rows in {} ms", job.getId(), job.getRows(), job.getMillis());
+		return job;
+	}
+
+	@Override
+	public BulkJob updateLocations(LocationBulkChange change) {
+		String chosen = CHOSEN + (change.getIds() == null ? AND_TYPE : "");
+		return changeLocations("update", change, (ids, params) -> {
+			params.addValue("newType", change.getNewType());
+			return namedJdbcTemplate.update("UPDATE location SET type = :newType, version = "
+					+ versionsByPosition(ids, params) + " " + chosen, params);
+		});
+	}
+
+	// tombstones first, while the rows to delete can still be read
+	@Override
+	public BulkJob deleteLocations(LocationBulkChange change) {
+		String chosen = "FROM location " + CHOSEN + (change.getIds() == null ? AND_TYPE : "");
+		return changeLocations("delete", change, (ids, params) -> {
+			params.addValue("now", new Date());
+			namedJdbcTemplate.update("DELETE FROM location_tombstone WHERE id IN (SELECT id " + chosen + ")", params);
+			namedJdbcTemplate.update("INSERT INTO location_tombstone (id, version, deleted_at) "
+					+ "SELECT id, " + versionsByPosition(ids, params) + ", :now " + chosen, params);
+			return namedJdbcTemplate.update("DELETE " + chosen, params);
+		});
+	}
+
+	@Override
+	public List<BulkJob> getJobs() {
+		synchronized (jobs) {
+			return new ArrayList<>(jobs.values());
+		}
+	}
+
+	private BulkJob startJob(String kind, String format) {
+		BulkJob job = new BulkJob(UUID.randomUUID().toString(), kind, format.toLowerCase());
+		synchronized (jobs) {
+			jobs.put(job.getId(), job);
+		}
+		return job;
+	}
+
+	private void writeBatch(List<Location> batch, BulkJob job) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		transactionTemplate.executeWithoutResult(status -> {
+			// versions in the file are ignored, every row gets a new one
+			long version = versions.next(batch.size());
+			for (Location location : batch) {
+				location.setVersion(version++);
+			}
+			jdbcTemplate.batchUpdate(UPSERT, batch, batch.size(), (ps, location) -> {
+				ps.setInt(1, location.getId());
+				ps.setString(2, location.getCode());
+				ps.setString(3, location.getName());
+				ps.setString(4, location.getType());
+				ps.setObject(5, location.getLatitude(), Types.DOUBLE);
+				ps.setObject(6, location.getLongitude(), Types.DOUBLE);
+				ps.setLong(7, location.getVersion());
+			});
+		});
+		for (int i = 0; i < batch.size(); i++) {
+			job.rowDone();
+			logProgress(job);
+		}
+		batch.clear();
+	}
+
+	// one set-based statement per BATCH_SIZE ids, each chunk in its own transaction
+	private BulkJob changeLocations(String kind, LocationBulkChange change, ChunkWriter writer) {
+		BulkJob job = startJob(kind, change.getIds() != null ? "ids" : "type");
+		try {
+			if (change.getIds() != null) {
+				List<Integer> ids = change.getIds().stream().distinct().sorted().collect(Collectors.toList());
+				for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+					writeChunk(ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())), change, writer, job);
+				}
+			} else {
+				int after = Integer.MIN_VALUE;
+				List<Integer> ids;
+				while (!(ids = jdbcTemplate.queryForList(NEXT_IDS_OF_TYPE, Integer.class, change.getType(), after,
+						BATCH_SIZE)).isEmpty()) {
+					writeChunk(ids, change, writer, job);
+					after = ids.get(ids.size() - 1);
+				}
+			}
+			job.finish(BulkJob.DONE);
+		} catch (RuntimeException e) {
+			LOGGER.error("{} {} failed after {} rows", kind, job.getId(), job.getRows(), e);
+			job.finish(BulkJob.FAILED);
+		} finally {
+			// once for the whole request, not per chunk
+			if (job.getRows() > 0) {
+				listeners.forEach(LocationChangeListener::locationsReplaced);
+			}
+		}
+		LOGGER.info("{} {} {}: {} rows in {} ms", kind, job.getId(), job.getStatus(), job.getRows(), job.getMillis());
+		return job;
+	}
+
+	private void writeChunk(List<Integer> ids, LocationBulkChange change, ChunkWriter writer, BulkJob job) {
+		MapSqlParameterSource params = new MapSqlParameterSource("ids", ids).addValue("type", change.getType());
+		job.rowsDone(transactionTemplate.execute(status -> writer.write(ids, params)));
+	}
+
+	// one version per id of the chunk, handed out by position so sparse ids don't use up versions
+	private String versionsByPosition(List<Integer> ids, MapSqlParameterSource params) {
+		long first = versions.next(ids.size());
+		StringBuilder sql = new StringBuilder("CASE id");
+		for (int i = 0; i < ids.size(); i++) {
+			sql.append(" WHEN :id").append(i).append(" THEN :version").append(i);
+			params.addValue("id" + i, ids.get(i)).addValue("version" + i, first + i);
+		}
+		return sql.append(" END").toString();
+	}
+
+	private interface ChunkWriter {
+		// returns the number of locations changed
+		int write(List<Integer> ids, MapSqlParameterSource params);
+	}
+
+	private void logProgress(BulkJob job) {
+		if (job.getRows() % PROGRESS_ROWS == 0) {
+			LOGGER.info("{} {}: {} rows so far", job.getKind(), job.getId(), job.getRows());
+		}
+	}
+
+	private static String validate(Location location) {
+		if (location.getId() <= 0) {
+			return "id must be a positive number";
+		}
+		if (isBlank(location.getCode())) {
+			return "code is missing";
+		}
+		if (isBlank(location.getName())) {
+			return "name is missing";
+		}
+		if (isBlank(location.getType())) {
+			return "type is missing";
+		}
+		if ((location.getLatitude() == null) != (location.getLongitude() == null)) {
+			return "latitude and longitude go together";
+		}
+		if (location.getLatitude() != null && Math.abs(location.getLatitude()) > 90) {
+			return "latitude must be between -90 and 90";
+		}
+		if (location.getLongitude() != null && Math.abs(location.getLongitude()) > 180) {
+			return "longitude must be between -180 and 180";
+		}
+		return null;
+	}
+
+	private static boolean isBlank(String value) {
+		return value == null || value.trim().isEmpty();
+	}
+
+	private ObjectReader reader(String format) {
+		if (CSV.equalsIgnoreCase(format)) {
+			// columns are matched by the header, in any order
+			return csvMapper.readerFor(Location.class).with(CsvSchema.emptySchema().withHeader());
+		}
+		return objectMapper.readerFor(Location.class);
+	}
+
+	private SequenceWriter writer(String format, OutputStream out) throws IOException {
+		if (CSV.equalsIgnoreCase(format)) {
+			return csvMapper.writerFor(Location.class).with(CSV_SCHEMA).writeValues(out);
+		}
+		return objectMapper.writerFor(Location.class).withRootValueSeparator("\n").writeValues(out);
+	}
+}
@@ -0,0 +1,36 @@
+package com.demiglace.location.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import com.demiglace.location.entities.Location;
+
+/**
+ * Keeps the id and code caches of {@link LocationServiceImpl} in step with committed writes.
+ */
+@Component
+public class LocationCacheListener implements LocationChangeListener {
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Override
+	public void locationChanged(Location previous, Location current) {
+		Cache byCode = cacheManager.getCache(LocationService.CODE_CACHE);
+		if (previous != null && previous.getCode() != null) {
+			byCode.evict(previous.getCode());
+		}
+		// evicted rather than put, the next read loads the committed row
+		cacheManager.getCache(LocationService.ID_CACHE).evict(current != null ? current.getId() : previous.getId());
+		if (current != null && current.getCode() != null) {
+			byCode.evict(current.getCode());
+		}
+	}
+
+	@Override
+	public void locationsReplaced() {
+		cacheManager.getCache(LocationService.ID_CACHE).clear();
+		cacheManager.getCache(LocationService.CODE_CACHE).clear();
+	}
+}
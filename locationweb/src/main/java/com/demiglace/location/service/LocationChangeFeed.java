@@ -0,0 +1,16 @@
+package com.demiglace.location.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.demiglace.location.dto.LocationChanges;
+
+/**
+ * Inserts, updates and deletes since a change version, oldest first. A location changed
+ * several times shows up once, at its latest version.
+ */
+public interface LocationChangeFeed {
+	LocationChanges getChangesSince(long since, int limit);
+
+	// sends the changes since as they happen, as server-sent events with the version as id
+	SseEmitter subscribe(long since);
+}
@@ -0,0 +1,165 @@
+package com.demiglace.location.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.demiglace.location.dto.LocationChange;
+import com.demiglace.location.dto.LocationChanges;
+import com.demiglace.location.entities.Location;
+import com.demiglace.location.entities.LocationTombstone;
+import com.demiglace.location.repos.LocationRepository;
+import com.demiglace.location.repos.LocationTombstoneRepository;
+
+@Service
+public class LocationChangeFeedImpl implements LocationChangeFeed {
+	@Autowired
+	private LocationRepository locationRepository;
+
+	@Autowired
+	private LocationTombstoneRepository tombstoneRepository;
+
+	@Autowired
+	private LocationVersions versions;
+
+	@Value("${com.demiglace.location.rest.maxpagesize}")
+	private int MAX_PAGE_SIZE;
+
+	@Value("${com.demiglace.location.changes.streamtimeoutmillis}")
+	private long STREAM_TIMEOUT_MILLIS;
+
+	@Value("${com.demiglace.location.changes.pushworkers}")
+	private int PUSH_WORKERS;
+
+	private ExecutorService executor;
+	private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationChangeFeedImpl.class);
+
+	@PostConstruct
+	public void init() {
+		executor = Executors.newFixedThreadPool(PUSH_WORKERS, new CustomizableThreadFactory("change-push-"));
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	// both tables are read by their version index and merged, stopping at what has settled
+	@Override
+	public LocationChanges getChangesSince(long since, int limit) {
+		int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+		long upTo = versions.stable();
+		PageRequest first = PageRequest.of(0, size);
+		List<Location> updated = locationRepository
+				.findByVersionGreaterThanAndVersionLessThanEqualOrderByVersionAsc(since, upTo, first);
+		List<LocationTombstone> deleted = tombstoneRepository
+				.findByVersionGreaterThanAndVersionLessThanEqualOrderByVersionAsc(since, upTo, first);
+
+		List<LocationChange> changes = new ArrayList<>(Math.min(size, updated.size() + deleted.size()));
+		int u = 0, d = 0;
+		while (changes.size() < size && (u < updated.size() || d < deleted.size())) {
+			if (d == deleted.size() || u < updated.size()
+					&& updated.get(u).getVersion() < deleted.get(d).getVersion()) {
+				Location location = updated.get(u++);
+				changes.add(new LocationChange(location.getVersion(), location.getId(), false, location));
+			} else {
+				LocationTombstone tombstone = deleted.get(d++);
+				changes.add(new LocationChange(tombstone.getVersion(), tombstone.getId(), true, null));
+			}
+		}
+
+		LocationChanges result = new LocationChanges();
+		result.setChanges(changes);
+		result.setMore(updated.size() == size || deleted.size() == size || u < updated.size() || d < deleted.size());
+		result.setNext(result.isMore() ? changes.get(changes.size() - 1).getVersion() : Math.max(since, upTo));
+		return result;
+	}
+
+	@Override
+	public SseEmitter subscribe(long since) {
+		return subscribe(new SseEmitter(STREAM_TIMEOUT_MILLIS), since);
+	}
+
+	SseEmitter subscribe(SseEmitter emitter, long since) {
+		Subscription subscription = new Subscription(emitter, since);
+		emitter.onCompletion(() -> subscriptions.remove(subscription));
+		emitter.onTimeout(() -> subscriptions.remove(subscription));
+		emitter.onError(e -> subscriptions.remove(subscription));
+		subscriptions.add(subscription);
+		return emitter;
+	}
+
+	// nothing is read while every subscriber is caught up. Each subscriber is sent to on a push worker so a
+	// slow one only holds up itself; one still busy with the last round is skipped and catches up next time
+	@Scheduled(fixedDelayString = "${com.demiglace.location.changes.pushmillis}")
+	public void pushChanges() {
+		long upTo = versions.stable();
+		for (Subscription subscription : subscriptions) {
+			if (subscription.since >= upTo || !subscription.pushing.compareAndSet(false, true)) {
+				continue;
+			}
+			try {
+				executor.execute(() -> push(subscription));
+			} catch (RejectedExecutionException e) {
+				subscription.pushing.set(false);
+			}
+		}
+	}
+
+	private void push(Subscription subscription) {
+		try {
+			LocationChanges changes;
+			do {
+				changes = getChangesSince(subscription.since, MAX_PAGE_SIZE);
+				for (LocationChange change : changes.getChanges()) {
+					subscription.emitter.send(SseEmitter.event().id(String.valueOf(change.getVersion()))
+							.name("change").data(change, MediaType.APPLICATION_JSON));
+				}
+				subscription.since = changes.getNext();
+			} while (changes.isMore());
+		} catch (IOException | IllegalStateException e) {
+			LOGGER.debug("change stream subscriber went away: {}", e.getMessage());
+			subscriptions.remove(subscription);
+			subscription.emitter.completeWithError(e);
+		} finally {
+			subscription.pushing.set(false);
+		}
+	}
+
+	int getSubscriberCount() {
+		return subscriptions.size();
+	}
+
+	private static class Subscription {
+		final SseEmitter emitter;
+		// at most one push per subscriber at a time
+		final AtomicBoolean pushing = new AtomicBoolean();
+		volatile long since;
+
+		Subscription(SseEmitter emitter, long since) {
+			this.emitter = emitter;
+			this.since = since;
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package com.demiglace.location.service;
+
+import com.demiglace.location.entities.Location;
+
+/**
+ * Told about every change made through {@link LocationService} once it is committed, so in-memory views
+ * of the location table can stay current without reading it again.
+ */
+public interface LocationChangeListener {
+	// previous is null for a new location, current is null once deleted
+	void locationChanged(Location previous, Location current);
+
+	// many rows changed at once, e.g. by a bulk import, start over from the table
+	void locationsReplaced();
+}
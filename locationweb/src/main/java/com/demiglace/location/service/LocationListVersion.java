@@ -0,0 +1,32 @@
+package com.demiglace.location.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+import com.demiglace.location.entities.Location;
+
+/**
+ * A counter that moves on every change to the location table, used as the ETag of the
+ * location list pages. It starts from the clock so a restart never hands out an old tag.
+ * It only moves once a change is committed; moving earlier would let a page read before the
+ * commit be cached under the new tag and answered with 304 from then on.
+ */
+@Component
+public class LocationListVersion implements LocationChangeListener {
+	private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+	public long get() {
+		return version.get();
+	}
+
+	@Override
+	public void locationChanged(Location previous, Location current) {
+		version.incrementAndGet();
+	}
+
+	@Override
+	public void locationsReplaced() {
+		version.incrementAndGet();
+	}
+}
@@ -1,13 +1,25 @@
 package com.demiglace.location.service;
 
 import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import com.demiglace.location.entities.Location;
 
 public interface LocationService {
+	String ID_CACHE = "locations";
+	String CODE_CACHE = "locationCodes";
+
 	Location saveLocation(Location location);
+	Location saveLocation(Location location, String notificationTo);
 	Location updateLocation(Location location);
 	void deleteLocation(Location location);
 	Location getLocationById(int id);
+	Location getLocationByCode(String code);
 	List<Location> getAllLocations();
+	Page<Location> getLocations(Pageable pageable);
+	List<Location> getLocationsAfter(int id, int limit);
+	void forEachLocation(Consumer<Location> action);
 }
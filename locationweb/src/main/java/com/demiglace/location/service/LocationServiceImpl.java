@@ -1,12 +1,30 @@
 package com.demiglace.location.service;
 
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.jpa.QueryHints;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.demiglace.location.entities.Location;
+import com.demiglace.location.entities.LocationTombstone;
 import com.demiglace.location.repos.LocationRepository;
+import com.demiglace.location.repos.LocationTombstoneRepository;
+import com.demiglace.location.util.EmailUtil;
 
 @Service
 public class LocationServiceImpl implements LocationService {
@@ -14,28 +32,138 @@ public class LocationServiceImpl implements LocationService {
 	@Autowired
 	private LocationRepository repository;
 
+	@Autowired
+	private LocationTombstoneRepository tombstoneRepository;
+
+	@Autowired
+	private LocationVersions versions;
+
+	@Autowired
+	private List<LocationChangeListener> listeners;
+
+	@Autowired
+	private EmailUtil emailUtil;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	// Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result
+	@Value("${com.demiglace.location.stream.fetchsize}")
+	private int STREAM_FETCH_SIZE;
+
 	@Override
+	@Transactional
 	public Location saveLocation(Location location) {
-		return repository.save(location);
+		// ids are assigned by the user, so saving an existing id replaces that location
+		return write(location);
+	}
+
+	// the mail is queued in the same transaction, so it goes out if and only if the location is saved
+	@Override
+	@Transactional
+	public Location saveLocation(Location location, String notificationTo) {
+		Location saved = write(location);
+		if (notificationTo != null && !notificationTo.isEmpty()) {
+			emailUtil.sendEmail(notificationTo, "Location Saved", "Location Saved successfully: " + saved);
+		}
+		return saved;
 	}
 
 	@Override
+	@Transactional
 	public Location updateLocation(Location location) {
-		return repository.save(location);
+		return write(location);
 	}
 
 	@Override
+	@Transactional
 	public void deleteLocation(Location location) {
-		repository.delete(location);
+		// one select, deleteById would read the row a second time
+		repository.findById(location.getId()).ifPresent(existing -> {
+			repository.delete(existing);
+			LocationTombstone tombstone = new LocationTombstone();
+			tombstone.setId(existing.getId());
+			tombstone.setVersion(versions.next(1));
+			tombstone.setDeletedAt(new Date());
+			tombstoneRepository.saveAndFlush(tombstone);
+			changed(existing, null);
+		});
 	}
 
 	@Override
+	@Cacheable(cacheNames = ID_CACHE, key = "#id")
 	public Location getLocationById(int id) {
 		return repository.findById(id).get();
 	}
 
+	// codes are what other systems send us, misses are not cached so a new code shows up at once
+	@Override
+	@Cacheable(cacheNames = CODE_CACHE, key = "#code", unless = "#result == null")
+	public Location getLocationByCode(String code) {
+		return repository.findFirstByCode(code).orElse(null);
+	}
+
 	@Override
 	public List<Location> getAllLocations() {
 		return repository.findAll();
 	}
+
+	@Override
+	public Page<Location> getLocations(Pageable pageable) {
+		return repository.findAll(pageable);
+	}
+
+	@Override
+	public List<Location> getLocationsAfter(int id, int limit) {
+		return repository.findByIdGreaterThanOrderByIdAsc(id, PageRequest.of(0, limit));
+	}
+
+	// forward-only cursor, each location is detached once handed over so memory stays flat
+	@Override
+	@Transactional(readOnly = true)
+	public void forEachLocation(Consumer<Location> action) {
+		try (Stream<Location> locations = entityManager
+				.createQuery("SELECT l FROM Location l ORDER BY l.id", Location.class)
+				.setHint(QueryHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE).getResultStream()) {
+			locations.forEach(location -> {
+				action.accept(location);
+				entityManager.detach(location);
+			});
+		}
+	}
+
+	private Location write(Location location) {
+		Location previous = findPrevious(location.getId());
+		location.setVersion(versions.next(1));
+		Location saved = repository.saveAndFlush(location);
+		changed(previous, saved);
+		return saved;
+	}
+
+	// detached, with open-in-view the managed instance is the one save merges into and would equal saved
+	private Location findPrevious(int id) {
+		Location previous = repository.findById(id).orElse(null);
+		if (previous != null) {
+			entityManager.detach(previous);
+		}
+		return previous;
+	}
+
+	// listeners hear of a change once it is committed, so caches and indexes never hold a rolled back row
+	private void changed(Location previous, Location current) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			notifyListeners(previous, current);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				notifyListeners(previous, current);
+			}
+		});
+	}
+
+	private void notifyListeners(Location previous, Location current) {
+		listeners.forEach(listener -> listener.locationChanged(previous, current));
+	}
 }
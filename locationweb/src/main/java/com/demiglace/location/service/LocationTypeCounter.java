@@ -0,0 +1,16 @@
+package com.demiglace.location.service;
+
+import java.util.List;
+
+/**
+ * Number of locations per type, kept up to date by {@link LocationService} so
+ * the report doesn't have to count the whole table.
+ */
+public interface LocationTypeCounter extends LocationChangeListener {
+	void changed(String previousType, String newType);
+
+	// type and count pairs, in the shape the report expects
+	List<Object[]> getTypeCounts();
+
+	void reconcile();
+}
@@ -0,0 +1,120 @@
+package com.demiglace.location.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.demiglace.location.entities.Location;
+import com.demiglace.location.repos.LocationRepository;
+
+@Component
+public class LocationTypeCounterImpl implements LocationTypeCounter {
+	@Autowired
+	private LocationRepository repository;
+
+	private volatile Map<String, AtomicLong> counts;
+	// changes made while reconcile counts, replayed onto the fresh counts
+	private List<String[]> pendingChanges;
+	private final Object pendingLock = new Object();
+	// changes share the read lock, reconcile swaps the counts under the write lock
+	private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+	@Override
+	public void locationChanged(Location previous, Location current) {
+		changed(previous != null ? previous.getType() : null, current != null ? current.getType() : null);
+	}
+
+	@Override
+	public void locationsReplaced() {
+		reconcile();
+	}
+
+	@Override
+	public void changed(String previousType, String newType) {
+		if (previousType != null && previousType.equals(newType)) {
+			return;
+		}
+		swapLock.readLock().lock();
+		try {
+			Map<String, AtomicLong> current = counts;
+			// not loaded yet, the first reconcile counts this change
+			if (current != null) {
+				apply(current, previousType, newType);
+			}
+			synchronized (pendingLock) {
+				if (pendingChanges != null) {
+					pendingChanges.add(new String[] { previousType, newType });
+				}
+			}
+		} finally {
+			swapLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Object[]> getTypeCounts() {
+		if (counts == null) {
+			reconcile();
+		}
+		List<Object[]> typeCounts = new ArrayList<>();
+		counts.forEach((type, count) -> {
+			if (count.get() > 0) {
+				typeCounts.add(new Object[] { type, count.get() });
+			}
+		});
+		return typeCounts;
+	}
+
+	// corrects any drift, e.g. from rows changed outside LocationService or a failed save. Changes made while
+	// counting are replayed onto the fresh counts, so steady writes don't keep it from ever swapping them in.
+	// The query may already have seen one of those, which leaves that type off by one until the next run.
+	@Override
+	@Scheduled(fixedDelayString = "${com.demiglace.location.typecounts.reconcilemillis}")
+	public synchronized void reconcile() {
+		synchronized (pendingLock) {
+			pendingChanges = new ArrayList<>();
+		}
+		Map<String, AtomicLong> fresh = new ConcurrentHashMap<>();
+		try {
+			for (Object[] row : repository.findTypeAndTypeCount()) {
+				if (row[0] != null) {
+					fresh.put(row[0].toString(), new AtomicLong(((Number) row[1]).longValue()));
+				}
+			}
+		} catch (RuntimeException e) {
+			synchronized (pendingLock) {
+				pendingChanges = null;
+			}
+			throw e;
+		}
+		swapLock.writeLock().lock();
+		try {
+			synchronized (pendingLock) {
+				for (String[] change : pendingChanges) {
+					apply(fresh, change[0], change[1]);
+				}
+				pendingChanges = null;
+			}
+			counts = fresh;
+		} finally {
+			swapLock.writeLock().unlock();
+		}
+	}
+
+	private static void apply(Map<String, AtomicLong> counts, String previousType, String newType) {
+		if (previousType != null) {
+			counts.computeIfAbsent(previousType, type -> new AtomicLong()).decrementAndGet();
+		}
+		if (newType != null) {
+			counts.computeIfAbsent(newType, type -> new AtomicLong()).incrementAndGet();
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.demiglace.location.service;
+
+import java.util.TreeSet;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.demiglace.location.repos.LocationRepository;
+import com.demiglace.location.repos.LocationTombstoneRepository;
+
+/**
+ * Hands out the change versions stamped on locations and tombstones. Versions are unique and
+ * increasing, but transactions commit in any order, so {@link #stable()} tells how far the feed
+ * may read without skipping a version that is still being written.
+ */
+@Component
+public class LocationVersions {
+	@Autowired
+	private LocationRepository locationRepository;
+
+	@Autowired
+	private LocationTombstoneRepository tombstoneRepository;
+
+	private long last;
+	// first version of every range whose transaction hasn't finished yet
+	private final TreeSet<Long> inFlight = new TreeSet<>();
+
+	@PostConstruct
+	void init() {
+		last = Math.max(locationRepository.findMaxVersion(), tombstoneRepository.findMaxVersion());
+	}
+
+	// the first of count consecutive versions, held until the current transaction completes
+	public long next(int count) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("change versions are handed out inside a transaction");
+		}
+		long first;
+		synchronized (this) {
+			first = last + 1;
+			last += count;
+			inFlight.add(first);
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				release(first);
+			}
+		});
+		return first;
+	}
+
+	// every version up to here is committed or rolled back
+	public synchronized long stable() {
+		return inFlight.isEmpty() ? last : inFlight.first() - 1;
+	}
+
+	private synchronized void release(long first) {
+		inFlight.remove(first);
+	}
+}
@@ -0,0 +1,128 @@
+package com.demiglace.location.util;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.demiglace.location.entities.OutboxEmail;
+import com.demiglace.location.repos.OutboxEmailRepository;
+
+/**
+ * Drains the email outbox in batches. Each batch goes over one SMTP connection, failed mails
+ * are retried with a growing delay and dead-lettered after MAX_ATTEMPTS.
+ */
+@Component
+public class EmailOutboxSender {
+	@Autowired
+	private OutboxEmailRepository outboxRepository;
+
+	@Autowired
+	private JavaMailSender sender;
+
+	@Value("${com.demiglace.location.outbox.batchsize}")
+	private int BATCH_SIZE;
+
+	@Value("${com.demiglace.location.outbox.maxattempts}")
+	private int MAX_ATTEMPTS;
+
+	@Value("${com.demiglace.location.outbox.retrydelaymillis}")
+	private long RETRY_DELAY_MILLIS;
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(EmailOutboxSender.class);
+
+	@Scheduled(fixedDelayString = "${com.demiglace.location.outbox.pollmillis}")
+	public void drainOutbox() {
+		// keep going while batches go through in full, stop at the first sign of trouble
+		while (sendBatch() == BATCH_SIZE) {
+		}
+	}
+
+	// returns how many mails were sent
+	int sendBatch() {
+		List<OutboxEmail> batch = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+				OutboxEmail.PENDING, new Date(), PageRequest.of(0, BATCH_SIZE));
+		if (batch.isEmpty()) {
+			return 0;
+		}
+		Map<MimeMessage, OutboxEmail> messages = new IdentityHashMap<>();
+		List<OutboxEmail> unsendable = new ArrayList<>();
+		for (OutboxEmail email : batch) {
+			try {
+				messages.put(toMessage(email), email);
+			} catch (MessagingException e) {
+				// a bad address won't get any better, no point retrying
+				email.setAttempts(MAX_ATTEMPTS - 1);
+				failed(email, e);
+				unsendable.add(email);
+			}
+		}
+		Map<Object, Exception> failures = new IdentityHashMap<>();
+		try {
+			// JavaMailSenderImpl sends the whole array over one connection
+			sender.send(messages.keySet().toArray(new MimeMessage[0]));
+		} catch (MailSendException e) {
+			failures.putAll(e.getFailedMessages());
+			if (failures.isEmpty()) {
+				// couldn't connect at all
+				messages.keySet().forEach(message -> failures.put(message, e));
+			}
+		} catch (MailException e) {
+			messages.keySet().forEach(message -> failures.put(message, e));
+		}
+		Date now = new Date();
+		messages.forEach((message, email) -> {
+			Exception failure = failures.get(message);
+			if (failure == null) {
+				email.setStatus(OutboxEmail.SENT);
+				email.setSentAt(now);
+				email.setAttempts(email.getAttempts() + 1);
+			} else {
+				failed(email, failure);
+			}
+		});
+		outboxRepository.saveAll(batch);
+		int sent = messages.size() - failures.size();
+		LOGGER.info("outbox batch: {} sent, {} failed", sent, failures.size() + unsendable.size());
+		return sent;
+	}
+
+	private void failed(OutboxEmail email, Exception e) {
+		int attempts = email.getAttempts() + 1;
+		email.setAttempts(attempts);
+		String error = String.valueOf(e.getMessage());
+		email.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+		if (attempts >= MAX_ATTEMPTS) {
+			email.setStatus(OutboxEmail.DEAD);
+			LOGGER.error("giving up on {} after {} attempts: {}", email, attempts, error);
+			return;
+		}
+		// 1, 2, 4, 8... times the retry delay
+		email.setNextAttemptAt(new Date(System.currentTimeMillis() + (RETRY_DELAY_MILLIS << (attempts - 1))));
+	}
+
+	private MimeMessage toMessage(OutboxEmail email) throws MessagingException {
+		MimeMessage message = sender.createMimeMessage();
+		MimeMessageHelper helper = new MimeMessageHelper(message);
+		helper.setTo(email.getToAddress());
+		helper.setText(email.getBody());
+		helper.setSubject(email.getSubject());
+		return message;
+	}
+}
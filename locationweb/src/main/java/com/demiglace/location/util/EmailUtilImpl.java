@@ -1,31 +1,36 @@
 package com.demiglace.location.util;
 
-import javax.mail.MessagingException;
-import javax.mail.internet.MimeMessage;
+import java.util.Date;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.demiglace.location.entities.OutboxEmail;
+import com.demiglace.location.repos.OutboxEmailRepository;
+
+/**
+ * Records the mail in the outbox, {@link EmailOutboxSender} sends it in the background.
+ * Called inside the transaction of the change the mail is about, so neither is kept without the other.
+ */
 @Component
 public class EmailUtilImpl implements EmailUtil {
 	
 	@Autowired
-	private JavaMailSender sender;
+	private OutboxEmailRepository outboxRepository;
 
 	@Override
+	@Transactional(propagation = Propagation.MANDATORY)
 	public void sendEmail(String toAddress, String subject, String body) {
-		MimeMessage message = sender.createMimeMessage();
-		MimeMessageHelper helper = new MimeMessageHelper(message);
-		try {
-			helper.setTo(toAddress);
-			helper.setText(body);
-			helper.setSubject(subject);
-		} catch (MessagingException e) {
-			e.printStackTrace();
-		}
-		
-		sender.send(message);
+		Date now = new Date();
+		OutboxEmail email = new OutboxEmail();
+		email.setToAddress(toAddress);
+		email.setSubject(subject);
+		email.setBody(body);
+		email.setStatus(OutboxEmail.PENDING);
+		email.setCreatedAt(now);
+		email.setNextAttemptAt(now);
+		outboxRepository.save(email);
 	}
 }
@@ -1,7 +1,52 @@
 package com.demiglace.location.util;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface ReportUtil {
-	void generatePieChart(String path, List<Object[]> data);
+	String PIE = "pie";
+	String BAR = "bar";
+	String CSV = "csv";
+	String PDF = "pdf";
+
+	// same counts, same hash, whatever the row order
+	String datasetHash(List<Object[]> data);
+
+	// JPEG bytes, rendered once per data set
+	CompletableFuture<byte[]> generatePieChart(List<Object[]> data);
+
+	// one format of the report, rendered once per data set and cached with the other formats
+	CompletableFuture<byte[]> generateReport(List<Object[]> data, String format);
+
+	// the formats render side by side on the report workers, all from the same data
+	Map<String, CompletableFuture<byte[]>> generateReports(List<Object[]> data, List<String> formats);
+
+	static boolean isSupported(String format) {
+		return PIE.equals(format) || BAR.equals(format) || CSV.equals(format) || PDF.equals(format);
+	}
+
+	static String contentType(String format) {
+		switch (format) {
+		case PIE:
+			return "image/jpeg";
+		case BAR:
+			return "image/png";
+		case CSV:
+			return "text/csv";
+		default:
+			return "application/pdf";
+		}
+	}
+
+	static String fileName(String format) {
+		switch (format) {
+		case PIE:
+			return "location-report-pie.jpeg";
+		case BAR:
+			return "location-report-bar.png";
+		default:
+			return "location-report." + format;
+		}
+	}
 }
@@ -1,21 +1,171 @@
 package com.demiglace.location.util;
 
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartUtilities;
 import org.jfree.chart.JFreeChart;
+import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.data.general.DefaultPieDataset;
-import org.jfree.data.general.PieDataset;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+
 @Component
 public class ReportUtilImpl implements ReportUtil {
+	@Value("${com.demiglace.location.report.workers}")
+	private int WORKERS;
+
+	@Value("${com.demiglace.location.report.queuecapacity}")
+	private int QUEUE_CAPACITY;
+
+	@Value("${com.demiglace.location.report.cachesize}")
+	private int CACHE_SIZE;
+
+	private ThreadPoolExecutor executor;
+	private Map<String, CompletableFuture<byte[]>> reports;
+	private final AtomicInteger renderCount = new AtomicInteger();
+
+	@PostConstruct
+	public void init() {
+		executor = new ThreadPoolExecutor(WORKERS, WORKERS, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(QUEUE_CAPACITY), new CustomizableThreadFactory("report-"));
+		// least recently used reports go first, every format counts
+		reports = new LinkedHashMap<String, CompletableFuture<byte[]>>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<byte[]>> eldest) {
+				return size() > CACHE_SIZE;
+			}
+		};
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	@Override
+	public String datasetHash(List<Object[]> data) {
+		List<String> rows = new ArrayList<>();
+		for (Object[] objects : data) {
+			rows.add(objects[0] + "\t" + objects[1]);
+		}
+		rows.sort(null);
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for (String row : rows) {
+				digest.update(row.getBytes(StandardCharsets.UTF_8));
+				digest.update((byte) '\n');
+			}
+			StringBuilder hash = new StringBuilder();
+			for (byte b : digest.digest()) {
+				hash.append(String.format("%02x", b));
+			}
+			return hash.substring(0, 32);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
 
 	@Override
-	public void generatePieChart(String path, List<Object[]> data) {
+	public CompletableFuture<byte[]> generatePieChart(List<Object[]> data) {
+		return generateReport(data, PIE);
+	}
+
+	// concurrent requests for the same data and format share one rendering
+	@Override
+	public CompletableFuture<byte[]> generateReport(List<Object[]> data, String format) {
+		if (!ReportUtil.isSupported(format)) {
+			throw new IllegalArgumentException("unknown report format " + format);
+		}
+		String key = datasetHash(data) + "/" + format;
+		CompletableFuture<byte[]> report;
+		synchronized (reports) {
+			report = reports.get(key);
+			if (report != null) {
+				return report;
+			}
+			report = new CompletableFuture<>();
+			reports.put(key, report);
+		}
+		// started outside the lock, a PDF comes back through here for its bar chart
+		CompletableFuture<byte[]> rendering;
+		try {
+			rendering = render(sorted(data), format);
+		} catch (RejectedExecutionException e) {
+			rendering = new CompletableFuture<>();
+			rendering.completeExceptionally(e);
+		}
+		CompletableFuture<byte[]> cached = report;
+		rendering.whenComplete((bytes, e) -> {
+			if (e != null) {
+				// failures aren't cached, the next request renders again
+				synchronized (reports) {
+					reports.remove(key, cached);
+				}
+				cached.completeExceptionally(e);
+			} else {
+				cached.complete(bytes);
+			}
+		});
+		return cached;
+	}
+
+	@Override
+	public Map<String, CompletableFuture<byte[]>> generateReports(List<Object[]> data, List<String> formats) {
+		Map<String, CompletableFuture<byte[]>> generated = new LinkedHashMap<>();
+		for (String format : formats) {
+			generated.put(format, generateReport(data, format));
+		}
+		return generated;
+	}
+
+	// the PDF embeds the bar chart, so it waits for that one instead of drawing it again,
+	// and only draws its own when the shared one failed or was turned away
+	private CompletableFuture<byte[]> render(List<Object[]> data, String format) {
+		switch (format) {
+		case PIE:
+			return CompletableFuture.supplyAsync(() -> renderPieChart(data), executor);
+		case BAR:
+			return CompletableFuture.supplyAsync(() -> renderBarChart(data), executor);
+		case CSV:
+			return CompletableFuture.supplyAsync(() -> renderCsv(data), executor);
+		default:
+			return generateReport(data, BAR).handle((barChart, e) -> barChart).thenApplyAsync(
+					barChart -> renderPdf(data, barChart != null ? barChart : renderBarChart(data)), executor);
+		}
+	}
+
+	private byte[] renderPieChart(List<Object[]> data) {
+		renderCount.incrementAndGet();
 		// copy the data into the pie data set
 		DefaultPieDataset dataset = new DefaultPieDataset();
 		for (Object[] objects: data) {
@@ -27,9 +177,105 @@ public class ReportUtilImpl implements ReportUtil {
 		
 		// convert to image
 		try {
-			ChartUtilities.saveChartAsJPEG(new File(path+"/pieChart.jpeg"), chart, 300, 300);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			ChartUtilities.writeChartAsJPEG(out, chart, 300, 300);
+			return out.toByteArray();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private byte[] renderBarChart(List<Object[]> data) {
+		renderCount.incrementAndGet();
+		DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+		for (Object[] objects : data) {
+			dataset.addValue(Double.valueOf(objects[1].toString()), "Locations", objects[0].toString());
+		}
+		JFreeChart chart = ChartFactory.createBarChart("Location Report", "Type", "Locations", dataset);
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			ChartUtilities.writeChartAsPNG(out, chart, 500, 300);
+			return out.toByteArray();
 		} catch (IOException e) {
-			e.printStackTrace();
+			throw new UncheckedIOException(e);
 		}
 	}
+
+	private byte[] renderCsv(List<Object[]> data) {
+		renderCount.incrementAndGet();
+		long total = total(data);
+		StringBuilder csv = new StringBuilder("type,locations,percent\r\n");
+		for (Object[] objects : data) {
+			long count = Long.parseLong(objects[1].toString());
+			csv.append(csvValue(objects[0].toString())).append(',').append(count).append(',')
+					.append(percent(count, total)).append("\r\n");
+		}
+		csv.append("TOTAL,").append(total).append(",100.0\r\n");
+		return csv.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private byte[] renderPdf(List<Object[]> data, byte[] barChart) {
+		renderCount.incrementAndGet();
+		long total = total(data);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		Document document = new Document(PageSize.A4);
+		try {
+			PdfWriter.getInstance(document, out);
+			document.open();
+			document.add(new Paragraph("Location Report"));
+			document.add(new Paragraph("Total locations: " + total));
+
+			// 3 columns
+			PdfPTable table = new PdfPTable(3);
+			table.setSpacingBefore(10);
+			table.addCell("Type");
+			table.addCell("Locations");
+			table.addCell("Percent");
+			for (Object[] objects : data) {
+				long count = Long.parseLong(objects[1].toString());
+				table.addCell(objects[0].toString());
+				table.addCell(String.valueOf(count));
+				table.addCell(percent(count, total));
+			}
+			document.add(table);
+
+			Image chart = Image.getInstance(barChart);
+			chart.scaleToFit(document.right() - document.left(), 300);
+			document.add(chart);
+			document.close();
+		} catch (DocumentException | IOException e) {
+			throw new IllegalStateException("could not render the PDF report", e);
+		}
+		return out.toByteArray();
+	}
+
+	// by type, so every format lists the rows the same way whatever order they came in
+	private static List<Object[]> sorted(List<Object[]> data) {
+		List<Object[]> rows = new ArrayList<>(data);
+		rows.sort(Comparator.comparing(row -> row[0].toString()));
+		return rows;
+	}
+
+	private static long total(List<Object[]> data) {
+		long total = 0;
+		for (Object[] objects : data) {
+			total += Long.parseLong(objects[1].toString());
+		}
+		return total;
+	}
+
+	private static String percent(long count, long total) {
+		return total == 0 ? "0.0" : String.format(Locale.ROOT, "%.1f", 100.0 * count / total);
+	}
+
+	private static String csvValue(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	int getRenderCount() {
+		return renderCount.get();
+	}
 }
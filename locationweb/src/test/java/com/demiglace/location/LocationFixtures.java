@@ -0,0 +1,34 @@
+package com.demiglace.location;
+
+import com.demiglace.location.entities.Location;
+
+public final class LocationFixtures {
+
+	private LocationFixtures() {
+	}
+
+	public static Location location(int id, String code) {
+		return location(id, code, code);
+	}
+
+	public static Location location(int id, String code, String name) {
+		return location(id, code, name, null, null);
+	}
+
+	public static Location location(int id, String code, String name, Double latitude, Double longitude) {
+		Location location = new Location();
+		location.setId(id);
+		location.setCode(code);
+		location.setName(name);
+		location.setType("URBAN");
+		location.setLatitude(latitude);
+		location.setLongitude(longitude);
+		return location;
+	}
+
+	public static Location location(int id, Double latitude, Double longitude, String type) {
+		Location location = location(id, "L" + id, "Location " + id, latitude, longitude);
+		location.setType(type);
+		return location;
+	}
+}
@@ -0,0 +1,124 @@
+package com.demiglace.location.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.StreamUtils;
+
+import com.demiglace.location.service.LocationTypeCounter;
+import com.demiglace.location.util.ReportUtil;
+
+class LocationControllerTests {
+	private static final String ZIP_TAG = "\"abc123-csv+pie\"";
+
+	private ReportUtil reportUtil;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		LocationTypeCounter typeCounter = mock(LocationTypeCounter.class);
+		reportUtil = mock(ReportUtil.class);
+		List<Object[]> counts = Collections.singletonList(new Object[] { "URBAN", 2L });
+		when(typeCounter.getTypeCounts()).thenReturn(counts);
+		when(reportUtil.datasetHash(counts)).thenReturn("abc123");
+		when(reportUtil.generateReports(any(), anyList())).thenAnswer(invocation -> {
+			Map<String, CompletableFuture<byte[]>> reports = new LinkedHashMap<>();
+			for (String format : invocation.<List<String>>getArgument(1)) {
+				reports.put(format, CompletableFuture.completedFuture(format.getBytes(StandardCharsets.UTF_8)));
+			}
+			return reports;
+		});
+		LocationController controller = new LocationController();
+		ReflectionTestUtils.setField(controller, "typeCounter", typeCounter);
+		ReflectionTestUtils.setField(controller, "reportUtil", reportUtil);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+	}
+
+	@Test
+	void testUnknownReportFormatIsNotFound() throws Exception {
+		perform(get("/reports/gif")).andExpect(status().isNotFound());
+		verify(reportUtil, never()).generateReport(any(), any());
+	}
+
+	@Test
+	void testUnknownZipFormatIsBadRequest() throws Exception {
+		perform(get("/reports.zip").param("formats", "pie,gif")).andExpect(status().isBadRequest());
+		perform(get("/reports.zip").param("formats", "zip")).andExpect(status().isBadRequest());
+		verify(reportUtil, never()).generateReports(any(), any());
+	}
+
+	@Test
+	void testZipHoldsEachFormatOnceInTheOrderAsked() throws Exception {
+		MvcResult result = perform(get("/reports.zip").param("formats", "csv,pie,csv")).andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, ZIP_TAG)).andReturn();
+		assertEquals(Arrays.asList("csv", "pie"), reportFormatsAsked());
+
+		try (ZipInputStream zip = new ZipInputStream(
+				new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+			ZipEntry entry = zip.getNextEntry();
+			assertEquals("location-report.csv", entry.getName());
+			assertArrayEquals("csv".getBytes(StandardCharsets.UTF_8), StreamUtils.copyToByteArray(zip));
+			entry = zip.getNextEntry();
+			assertEquals("location-report-pie.jpeg", entry.getName());
+			assertArrayEquals("pie".getBytes(StandardCharsets.UTF_8), StreamUtils.copyToByteArray(zip));
+			assertNull(zip.getNextEntry());
+		}
+	}
+
+	@Test
+	void testZipIsNotRenderedWhileTheTagMatches() throws Exception {
+		perform(get("/reports.zip").param("formats", "csv,pie").header(HttpHeaders.IF_NONE_MATCH, ZIP_TAG))
+				.andExpect(status().isNotModified()).andExpect(header().string(HttpHeaders.ETAG, ZIP_TAG));
+		verify(reportUtil, never()).generateReports(any(), any());
+
+		// another order is another zip
+		perform(get("/reports.zip").param("formats", "pie,csv").header(HttpHeaders.IF_NONE_MATCH, ZIP_TAG))
+				.andExpect(status().isOk());
+		verify(reportUtil, times(1)).generateReports(any(), any());
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<String> reportFormatsAsked() {
+		ArgumentCaptor<List<String>> formats = ArgumentCaptor.forClass(List.class);
+		verify(reportUtil).generateReports(any(), formats.capture());
+		return formats.getValue();
+	}
+
+	// every report endpoint answers asynchronously
+	private ResultActions perform(RequestBuilder request) throws Exception {
+		return mockMvc.perform(asyncDispatch(mockMvc.perform(request).andReturn()));
+	}
+}
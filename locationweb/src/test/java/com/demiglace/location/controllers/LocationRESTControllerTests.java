@@ -0,0 +1,137 @@
+package com.demiglace.location.controllers;
+
+import static com.demiglace.location.LocationFixtures.location;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.demiglace.location.entities.Location;
+import com.demiglace.location.search.LocationGeoIndex;
+import com.demiglace.location.service.LocationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class LocationRESTControllerTests {
+	private LocationService service;
+	private LocationGeoIndex geoIndex;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		service = mock(LocationService.class);
+		geoIndex = mock(LocationGeoIndex.class);
+		LocationRESTController controller = new LocationRESTController();
+		ReflectionTestUtils.setField(controller, "service", service);
+		ReflectionTestUtils.setField(controller, "geoIndex", geoIndex);
+		ReflectionTestUtils.setField(controller, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(controller, "MAX_PAGE_SIZE", 100);
+		mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+	}
+
+	@Test
+	void testPageIsSortedByIdAndCapped() throws Exception {
+		when(service.getLocations(any(Pageable.class))).thenAnswer(invocation -> new PageImpl<>(
+				Arrays.asList(location(1, "AUS")), invocation.getArgument(0, Pageable.class), 1));
+		mockMvc.perform(get("/locations").param("page", "0").param("size", "1000")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].code").value("AUS"));
+
+		ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+		verify(service).getLocations(pageable.capture());
+		assertEquals(100, pageable.getValue().getPageSize());
+		assertEquals("id: ASC", pageable.getValue().getSort().toString());
+	}
+
+	@Test
+	void testNegativePageAndSizeAreClamped() throws Exception {
+		when(service.getLocations(any(Pageable.class))).thenReturn(new PageImpl<>(Collections.emptyList()));
+		mockMvc.perform(get("/locations").param("page", "-3").param("size", "0")).andExpect(status().isOk());
+		verify(service).getLocations(PageRequest.of(0, 1, Sort.by("id")));
+	}
+
+	@Test
+	void testKeysetPageLinksToTheNextOne() throws Exception {
+		when(service.getLocationsAfter(Integer.MIN_VALUE, 2)).thenReturn(Arrays.asList(location(1, "AUS"),
+				location(4, "NYC")));
+		when(service.getLocationsAfter(4, 2)).thenReturn(Arrays.asList(location(7, "SFO")));
+
+		mockMvc.perform(get("/locations").param("limit", "2")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.locations.length()").value(2)).andExpect(jsonPath("$.next").value(4));
+		// a short page is the last one
+		mockMvc.perform(get("/locations").param("after", "4").param("limit", "2")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.locations[0].code").value("SFO")).andExpect(jsonPath("$.next").isEmpty());
+	}
+
+	@Test
+	void testKeysetLimitBelowOneIsClamped() throws Exception {
+		when(service.getLocationsAfter(Integer.MIN_VALUE, 1)).thenReturn(Arrays.asList(location(1, "AUS")));
+		mockMvc.perform(get("/locations").param("limit", "-5")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.next").value(1));
+	}
+
+	@Test
+	void testGeoQueriesOutsideTheirDomainAreRejected() throws Exception {
+		mockMvc.perform(get("/locations/nearest").param("lat", "30").param("lon", "-97").param("k", "-1"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/locations/nearest").param("lat", "91").param("lon", "-97"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/locations/within").param("lat", "30").param("lon", "-97").param("radiusKm", "-5"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/locations/within").param("lat", "30").param("lon", "-97").param("radiusKm", "NaN"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/locations/within").param("lat", "30").param("lon", "-97").param("radiusKm", "50")
+				.param("limit", "-1")).andExpect(status().isBadRequest());
+		verify(geoIndex, never()).nearest(anyDouble(), anyDouble(), anyInt(), any());
+		verify(geoIndex, never()).within(anyDouble(), anyDouble(), anyDouble(), any(), anyInt());
+	}
+
+	@Test
+	void testGeoLimitsAreCapped() throws Exception {
+		when(geoIndex.within(30, -97, 50, null, 100)).thenReturn(Collections.emptyList());
+		mockMvc.perform(get("/locations/within").param("lat", "30").param("lon", "-97").param("radiusKm", "50")
+				.param("limit", "1000")).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(0));
+		verify(geoIndex).within(30, -97, 50, null, 100);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testStreamWritesEveryLocationAsOneArray() throws Exception {
+		doAnswer(invocation -> {
+			Consumer<Location> action = invocation.getArgument(0);
+			for (int id = 1; id <= 2500; id++) {
+				action.accept(location(id, "L" + id));
+			}
+			return null;
+		}).when(service).forEachLocation(any(Consumer.class));
+
+		MvcResult result = mockMvc.perform(get("/locations/stream")).andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(content().contentType("application/json"))
+				.andExpect(jsonPath("$.length()").value(2500)).andExpect(jsonPath("$[2499].code").value("L2500"));
+	}
+}
@@ -0,0 +1,57 @@
+package com.demiglace.location.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.demiglace.location.entities.Location;
+
+/**
+ * Nearest and radius queries over a million located points.
+ * Run with: mvn test -Dtest=LocationGeoIndexBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LocationGeoIndexBenchmark {
+	private static final int LOCATIONS = 1_000_000;
+	private static final int QUERIES = 50_000;
+
+	@Test
+	void geoQueryLatency() {
+		Random random = new Random(42);
+		List<Location> locations = LocationGeoIndexImplTests.randomLocations(random, LOCATIONS);
+		LocationGeoIndexImpl index = new LocationGeoIndexImpl(0.5);
+		long start = System.nanoTime();
+		index.rebuild(sink -> locations.forEach(sink));
+		System.out.printf("built %d points in %d ms%n", index.size(), (System.nanoTime() - start) / 1_000_000);
+
+		report("nearest 10", random, (latitude, longitude) -> index.nearest(latitude, longitude, 10, null).size());
+		report("nearest 10 RURAL", random,
+				(latitude, longitude) -> index.nearest(latitude, longitude, 10, "RURAL").size());
+		report("within 50 km", random,
+				(latitude, longitude) -> index.within(latitude, longitude, 50, null, 1000).size());
+		report("within 500 km", random,
+				(latitude, longitude) -> index.within(latitude, longitude, 500, null, 1000).size());
+	}
+
+	private void report(String name, Random random, Query query) {
+		long[] latencies = new long[QUERIES];
+		long found = 0;
+		for (int i = 0; i < QUERIES; i++) {
+			double latitude = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+			double longitude = random.nextDouble() * 360 - 180;
+			long start = System.nanoTime();
+			found += query.run(latitude, longitude);
+			latencies[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(latencies);
+		System.out.printf("%-18s p50 %7.1f us  p99 %7.1f us  %6.1f results per query%n", name,
+				latencies[QUERIES / 2] / 1e3, latencies[QUERIES * 99 / 100] / 1e3, (double) found / QUERIES);
+	}
+
+	private interface Query {
+		int run(double latitude, double longitude);
+	}
+}
@@ -0,0 +1,106 @@
+package com.demiglace.location.search;
+
+import static com.demiglace.location.LocationFixtures.location;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.demiglace.location.dto.LocationDistance;
+import com.demiglace.location.entities.Location;
+
+class LocationGeoIndexImplTests {
+	private final LocationGeoIndexImpl index = new LocationGeoIndexImpl(0.5);
+
+	@Test
+	void testNearestMatchesBruteForceAnywhereOnTheGlobe() {
+		Random random = new Random(7);
+		List<Location> locations = randomLocations(random, 5000);
+		index.rebuild(sink -> locations.forEach(sink));
+		// including near the poles and across the antimeridian
+		double[][] queries = { { 0, 0 }, { 89.9, 10 }, { -89.5, -170 }, { 10, 179.9 }, { -35, -179.8 },
+				{ 51.5, -0.1 } };
+		for (double[] query : queries) {
+			for (String type : new String[] { null, "RURAL" }) {
+				assertEquals(ids(bruteForce(locations, query[0], query[1], type, Double.MAX_VALUE, 10)),
+						ids(index.nearest(query[0], query[1], 10, type)));
+			}
+		}
+		for (int i = 0; i < 200; i++) {
+			double latitude = random.nextDouble() * 180 - 90;
+			double longitude = random.nextDouble() * 360 - 180;
+			assertEquals(ids(bruteForce(locations, latitude, longitude, null, Double.MAX_VALUE, 5)),
+					ids(index.nearest(latitude, longitude, 5, null)));
+		}
+	}
+
+	@Test
+	void testWithinMatchesBruteForce() {
+		Random random = new Random(11);
+		List<Location> locations = randomLocations(random, 5000);
+		index.rebuild(sink -> locations.forEach(sink));
+		double[][] queries = { { 0, 0, 500 }, { 88, 45, 600 }, { -20, 179.5, 800 }, { 40, -100, 3000 },
+				{ 10, 10, 25000 } };
+		for (double[] query : queries) {
+			assertEquals(ids(bruteForce(locations, query[0], query[1], "URBAN", query[2], 10000)),
+					ids(index.within(query[0], query[1], query[2], "URBAN", 10000)));
+		}
+	}
+
+	@Test
+	void testMovedAndDeletedLocationsAreSeenAtOnce() {
+		Location austin = location(1, 30.27, -97.74, "URBAN");
+		index.locationChanged(null, austin);
+		index.locationChanged(null, location(2, 40.71, -74.01, "URBAN"));
+		assertEquals("[1, 2]", ids(index.nearest(30, -97, 5, null)));
+
+		Location moved = location(1, 40.70, -74.00, "URBAN");
+		index.locationChanged(austin, moved);
+		assertEquals("[1, 2]", ids(index.nearest(40.70, -74.00, 5, null)));
+		assertEquals("[]", ids(index.within(30.27, -97.74, 100, null, 10)));
+
+		index.locationChanged(moved, null);
+		assertEquals("[2]", ids(index.nearest(0, 0, 5, null)));
+		// without coordinates a location is simply not in the index
+		index.locationChanged(null, location(3, null, null, "URBAN"));
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void testDistancesAreGreatCircleKilometres() {
+		double londonToNewYork = LocationGeoIndexImpl.distanceKm(51.5074, -0.1278, 40.7128, -74.0060);
+		assertTrue(Math.abs(londonToNewYork - 5570) < 10, String.valueOf(londonToNewYork));
+	}
+
+	private static List<LocationDistance> bruteForce(List<Location> locations, double latitude, double longitude,
+			String type, double radiusKm, int k) {
+		return locations.stream().filter(location -> type == null || type.equals(location.getType()))
+				.map(location -> new LocationDistance(location, LocationGeoIndexImpl.distanceKm(latitude, longitude,
+						location.getLatitude(), location.getLongitude())))
+				.filter(distance -> distance.getDistanceKm() <= radiusKm)
+				.sorted(Comparator.comparingDouble(LocationDistance::getDistanceKm)).limit(k)
+				.collect(Collectors.toList());
+	}
+
+	private static String ids(List<LocationDistance> distances) {
+		return distances.stream().map(distance -> distance.getLocation().getId()).collect(Collectors.toList())
+				.toString();
+	}
+
+	static List<Location> randomLocations(Random random, int count) {
+		List<Location> locations = new ArrayList<>(count);
+		for (int i = 1; i <= count; i++) {
+			// uniform over the sphere, so the poles are as crowded as the equator
+			double latitude = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+			double longitude = random.nextDouble() * 360 - 180;
+			locations.add(location(i, latitude, longitude, random.nextInt(4) == 0 ? "RURAL" : "URBAN"));
+		}
+		return locations;
+	}
+}
@@ -0,0 +1,55 @@
+package com.demiglace.location.search;
+
+import static com.demiglace.location.LocationFixtures.location;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Type-ahead latency over a million locations.
+ * Run with: mvn test -Dtest=LocationSearchIndexBenchmark -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LocationSearchIndexBenchmark {
+	private static final int LOCATIONS = 1_000_000;
+	private static final int QUERIES = 200_000;
+	private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+	@Test
+	void prefixSearchLatency() {
+		Random random = new Random(42);
+		LocationSearchIndexImpl index = new LocationSearchIndexImpl();
+		long start = System.nanoTime();
+		index.rebuild(sink -> {
+			for (int i = 1; i <= LOCATIONS; i++) {
+				sink.accept(location(i, word(random, 3).toUpperCase(),
+						word(random, 4 + random.nextInt(6)) + " " + word(random, 4 + random.nextInt(6))));
+			}
+		});
+		System.out.printf("built %d locations in %d ms%n", index.size(), (System.nanoTime() - start) / 1_000_000);
+
+		long[] latencies = new long[QUERIES];
+		int found = 0;
+		for (int i = 0; i < QUERIES; i++) {
+			String prefix = word(random, 1 + random.nextInt(4));
+			long queryStart = System.nanoTime();
+			found += index.search(prefix, 10).size();
+			latencies[i] = System.nanoTime() - queryStart;
+		}
+		Arrays.sort(latencies);
+		System.out.printf("%d queries, top 10: p50 %.1f us, p99 %.1f us, max %.1f us, %.1f results per query%n",
+				QUERIES, latencies[QUERIES / 2] / 1e3, latencies[QUERIES * 99 / 100] / 1e3,
+				latencies[QUERIES - 1] / 1e3, (double) found / QUERIES);
+	}
+
+	private static String word(Random random, int length) {
+		StringBuilder word = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+		}
+		return word.toString();
+	}
+}
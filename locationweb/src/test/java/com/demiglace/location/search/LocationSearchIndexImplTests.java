@@ -0,0 +1,66 @@
+package com.demiglace.location.search;
+
+import static com.demiglace.location.LocationFixtures.location;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.demiglace.location.entities.Location;
+
+class LocationSearchIndexImplTests {
+	private final LocationSearchIndexImpl index = new LocationSearchIndexImpl();
+
+	@Test
+	void testCodesRankBeforeNamesAndWords() {
+		index.locationChanged(null, location(1, "NYC", "New York"));
+		index.locationChanged(null, location(2, "NEW", "Newcastle"));
+		index.locationChanged(null, location(3, "EWR", "Newark"));
+		index.locationChanged(null, location(4, "YVR", "Vancouver New Town"));
+		assertEquals("[2, 1, 3, 4]", ids(index.search("new", 10)));
+		assertEquals("[2, 1]", ids(index.search("new", 2)));
+		assertEquals("[1]", ids(index.search("new y", 10)));
+	}
+
+	@Test
+	void testMatchingIgnoresCaseAndAccents() {
+		index.locationChanged(null, location(1, "GRU", "São Paulo"));
+		assertEquals("[1]", ids(index.search("SAO", 10)));
+		assertEquals("[1]", ids(index.search("paul", 10)));
+		assertEquals("[1]", ids(index.search(" gr", 10)));
+		assertEquals("[]", ids(index.search("", 10)));
+	}
+
+	@Test
+	void testUpdatesAndDeletesAreSeenAtOnce() {
+		Location aus = location(1, "AUS", "Austin");
+		index.locationChanged(null, aus);
+		Location renamed = location(1, "AUS", "Bergstrom");
+		index.locationChanged(aus, renamed);
+		assertEquals("[]", ids(index.search("austin", 10)));
+		assertEquals("[1]", ids(index.search("berg", 10)));
+		index.locationChanged(renamed, null);
+		assertEquals("[]", ids(index.search("aus", 10)));
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	void testChangesDuringRebuildAreKept() {
+		Location aus = location(1, "AUS", "Austin");
+		index.rebuild(sink -> {
+			sink.accept(aus);
+			// saved while the table is being read
+			index.locationChanged(null, location(2, "NYC", "New York"));
+			index.locationChanged(aus, null);
+		});
+		assertEquals("[]", ids(index.search("aus", 10)));
+		assertEquals("[2]", ids(index.search("nyc", 10)));
+		assertEquals(1, index.size());
+	}
+
+	private static String ids(List<Location> locations) {
+		return locations.stream().map(Location::getId).collect(Collectors.toList()).toString();
+	}
+}
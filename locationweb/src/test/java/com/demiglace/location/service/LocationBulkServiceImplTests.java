@@ -0,0 +1,195 @@
+package com.demiglace.location.service;
+
+import static com.demiglace.location.LocationFixtures.location;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.demiglace.location.dto.BulkJob;
+import com.demiglace.location.dto.LocationBulkChange;
+import com.demiglace.location.entities.Location;
+import com.demiglace.location.repos.LocationRepository;
+import com.demiglace.location.repos.LocationTombstoneRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class LocationBulkServiceImplTests {
+	private EmbeddedDatabase database;
+	private JdbcTemplate jdbcTemplate;
+	private LocationService locationService;
+	private LocationChangeListener listener;
+	private LocationBulkServiceImpl bulkService;
+
+	@BeforeEach
+	void setUp() {
+		// the upsert is mysql's ON DUPLICATE KEY UPDATE
+		database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName("bulk;MODE=MySQL")
+				.addScript("classpath:bulk-schema.sql").build();
+		jdbcTemplate = new JdbcTemplate(database);
+		LocationVersions versions = new LocationVersions();
+		ReflectionTestUtils.setField(versions, "locationRepository", mock(LocationRepository.class));
+		ReflectionTestUtils.setField(versions, "tombstoneRepository", mock(LocationTombstoneRepository.class));
+		versions.init();
+		locationService = mock(LocationService.class);
+		listener = mock(LocationChangeListener.class);
+
+		bulkService = new LocationBulkServiceImpl();
+		ReflectionTestUtils.setField(bulkService, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(bulkService, "namedJdbcTemplate", new NamedParameterJdbcTemplate(jdbcTemplate));
+		ReflectionTestUtils.setField(bulkService, "transactionTemplate",
+				new TransactionTemplate(new DataSourceTransactionManager(database)));
+		ReflectionTestUtils.setField(bulkService, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(bulkService, "locationService", locationService);
+		ReflectionTestUtils.setField(bulkService, "versions", versions);
+		ReflectionTestUtils.setField(bulkService, "listeners", Collections.singletonList(listener));
+		ReflectionTestUtils.setField(bulkService, "BATCH_SIZE", 2);
+		ReflectionTestUtils.setField(bulkService, "MAX_ERRORS", 10);
+	}
+
+	@AfterEach
+	void tearDown() {
+		database.shutdown();
+	}
+
+	@Test
+	void testInvalidRowsAreRejectedAndTheRestImported() {
+		BulkJob job = importCsv("id,code,name,type,latitude,longitude\n"
+				+ "1,AUS,Austin,URBAN,30.2,-97.7\n"
+				+ "2,,Nameless,URBAN,,\n"
+				+ "x,BAD,Bad id,URBAN,,\n"
+				+ "3,NYC,New York,URBAN,95,-74\n"
+				+ "4,SFO,San Francisco,URBAN,37.6,\n"
+				+ "5,LAX,Los Angeles,URBAN,,\n");
+
+		assertEquals(BulkJob.DONE, job.getStatus());
+		assertEquals(2, job.getRows());
+		assertEquals(4, job.getRejected());
+		assertTrue(job.getErrors().get(0).startsWith("line 3: code is missing"), job.getErrors().get(0));
+		assertTrue(job.getErrors().get(2).contains("latitude must be between -90 and 90"));
+		assertEquals(Arrays.asList(1, 5), jdbcTemplate.queryForList("SELECT id FROM location ORDER BY id",
+				Integer.class));
+		verify(listener).locationsReplaced();
+	}
+
+	@Test
+	void testImportInsertsNewRowsAndUpdatesExistingOnes() {
+		importCsv("id,code,name,type\n1,AUS,Austin,URBAN\n2,NYC,New York,URBAN\n");
+		BulkJob job = importJsonLines("{\"id\":2,\"code\":\"JFK\",\"name\":\"New York JFK\",\"type\":\"RURAL\"}\n"
+				+ "{\"id\":3,\"code\":\"SFO\",\"name\":\"San Francisco\",\"type\":\"URBAN\",\"latitude\":37.6,"
+				+ "\"longitude\":-122.4}\n");
+
+		assertEquals(2, job.getRows());
+		assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM location", Integer.class));
+		Map<String, Object> updated = jdbcTemplate.queryForMap("SELECT code, name, type, version FROM location "
+				+ "WHERE id = 2");
+		assertEquals("JFK", updated.get("CODE"));
+		assertEquals("RURAL", updated.get("TYPE"));
+		// every write gets a version of its own, the update one after the first import's two
+		assertEquals(3L, ((Number) updated.get("VERSION")).longValue());
+		assertEquals(37.6, jdbcTemplate.queryForObject("SELECT latitude FROM location WHERE id = 3", Double.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void testExportWritesEveryLocation() {
+		doAnswer(invocation -> {
+			Consumer<Location> action = invocation.getArgument(0);
+			action.accept(location(1, "AUS", "Austin, TX", 30.2, -97.7));
+			action.accept(location(2, "NYC", "New York", null, null));
+			return null;
+		}).when(locationService).forEachLocation(any(Consumer.class));
+
+		ByteArrayOutputStream csv = new ByteArrayOutputStream();
+		BulkJob job = bulkService.exportLocations(csv, LocationBulkService.CSV);
+		assertEquals(BulkJob.DONE, job.getStatus());
+		assertEquals(2, job.getRows());
+		assertEquals("id,code,name,type,latitude,longitude,version\n"
+				+ "1,AUS,\"Austin, TX\",URBAN,30.2,-97.7,0\n"
+				+ "2,NYC,\"New York\",URBAN,,,0\n", csv.toString());
+
+		ByteArrayOutputStream jsonLines = new ByteArrayOutputStream();
+		bulkService.exportLocations(jsonLines, LocationBulkService.JSONL);
+		String[] lines = jsonLines.toString().split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[1].startsWith("{\"id\":2,\"code\":\"NYC\""), lines[1]);
+	}
+
+	@Test
+	void testBulkUpdateGivesSparseIdsConsecutiveVersions() {
+		importCsv("id,code,name,type\n1,AUS,Austin,URBAN\n1000000,NYC,New York,URBAN\n"
+				+ "2000000000,SFO,San Francisco,URBAN\n");
+		LocationBulkChange change = new LocationBulkChange();
+		change.setIds(Arrays.asList(2000000000, 1, 1000000, 7));
+		change.setNewType("RURAL");
+		BulkJob job = bulkService.updateLocations(change);
+
+		assertEquals(BulkJob.DONE, job.getStatus());
+		assertEquals(3, job.getRows());
+		assertEquals(Arrays.asList("RURAL", "RURAL", "RURAL"), jdbcTemplate.queryForList(
+				"SELECT type FROM location ORDER BY id", String.class));
+		// the import used 1 to 3, then one version per requested id, the missing 7 included
+		assertEquals(Arrays.asList(4L, 6L, 7L), jdbcTemplate.queryForList(
+				"SELECT version FROM location ORDER BY id", Long.class));
+	}
+
+	@Test
+	void testBulkUpdateByTypeOnlyTouchesThatType() {
+		importCsv("id,code,name,type\n1,AUS,Austin,URBAN\n2,NYC,New York,RURAL\n3,SFO,San Francisco,URBAN\n");
+		LocationBulkChange change = new LocationBulkChange();
+		change.setType("URBAN");
+		change.setNewType("SUBURBAN");
+		BulkJob job = bulkService.updateLocations(change);
+
+		assertEquals(2, job.getRows());
+		assertEquals(Arrays.asList("SUBURBAN", "RURAL", "SUBURBAN"), jdbcTemplate.queryForList(
+				"SELECT type FROM location ORDER BY id", String.class));
+	}
+
+	@Test
+	void testBulkDeleteLeavesATombstonePerRow() {
+		importCsv("id,code,name,type\n1,AUS,Austin,URBAN\n2,NYC,New York,RURAL\n3,SFO,San Francisco,URBAN\n");
+		LocationBulkChange change = new LocationBulkChange();
+		change.setType("URBAN");
+		BulkJob job = bulkService.deleteLocations(change);
+
+		assertEquals(BulkJob.DONE, job.getStatus());
+		assertEquals(2, job.getRows());
+		assertEquals(Arrays.asList(2), jdbcTemplate.queryForList("SELECT id FROM location", Integer.class));
+		assertEquals(Arrays.asList(1, 3), jdbcTemplate.queryForList(
+				"SELECT id FROM location_tombstone ORDER BY id", Integer.class));
+		assertEquals(Arrays.asList(4L, 5L), jdbcTemplate.queryForList(
+				"SELECT version FROM location_tombstone ORDER BY id", Long.class));
+	}
+
+	private BulkJob importCsv(String csv) {
+		return bulkService.importLocations(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+				LocationBulkService.CSV);
+	}
+
+	private BulkJob importJsonLines(String jsonLines) {
+		return bulkService.importLocations(new ByteArrayInputStream(jsonLines.getBytes(StandardCharsets.UTF_8)),
+				LocationBulkService.JSONL);
+	}
+}
@@ -0,0 +1,57 @@
+package com.demiglace.location.service;
+
+import static com.demiglace.location.LocationFixtures.location;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.demiglace.location.entities.Location;
+
+class LocationCacheListenerTests {
+	private LocationCacheListener listener;
+	private Cache byId;
+	private Cache byCode;
+
+	@BeforeEach
+	void setUp() {
+		ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(LocationService.ID_CACHE,
+				LocationService.CODE_CACHE);
+		listener = new LocationCacheListener();
+		ReflectionTestUtils.setField(listener, "cacheManager", cacheManager);
+		byId = cacheManager.getCache(LocationService.ID_CACHE);
+		byCode = cacheManager.getCache(LocationService.CODE_CACHE);
+	}
+
+	@Test
+	void testChangedLocationIsReadAgain() {
+		Location aus = location(1, "AUS");
+		byId.put(1, aus);
+		byCode.put("AUS", aus);
+		listener.locationChanged(aus, location(1, "AUX"));
+		assertNull(byId.get(1));
+		assertNull(byCode.get("AUS"));
+	}
+
+	@Test
+	void testDeletedLocationIsEvicted() {
+		Location aus = location(1, "AUS");
+		byId.put(1, aus);
+		byCode.put("AUS", aus);
+		listener.locationChanged(aus, null);
+		assertNull(byId.get(1));
+		assertNull(byCode.get("AUS"));
+	}
+
+	@Test
+	void testBulkChangesClearEverything() {
+		byId.put(1, location(1, "AUS"));
+		byCode.put("AUS", location(1, "AUS"));
+		listener.locationsReplaced();
+		assertNull(byId.get(1));
+		assertNull(byCode.get("AUS"));
+	}
+}
@@ -0,0 +1,174 @@
+package com.demiglace.location.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.demiglace.location.dto.LocationChange;
+import com.demiglace.location.dto.LocationChanges;
+import com.demiglace.location.entities.Location;
+import com.demiglace.location.entities.LocationTombstone;
+import com.demiglace.location.repos.LocationRepository;
+import com.demiglace.location.repos.LocationTombstoneRepository;
+
+class LocationChangeFeedImplTests {
+	private final List<Location> locations = new ArrayList<>();
+	private final List<LocationTombstone> tombstones = new ArrayList<>();
+	private LocationVersions versions;
+	private LocationChangeFeedImpl feed;
+
+	@BeforeEach
+	void setUp() {
+		LocationRepository locationRepository = mock(LocationRepository.class);
+		LocationTombstoneRepository tombstoneRepository = mock(LocationTombstoneRepository.class);
+		versions = mock(LocationVersions.class);
+		// the repositories answer like the database would, from the lists
+		when(locationRepository.findByVersionGreaterThanAndVersionLessThanEqualOrderByVersionAsc(anyLong(), anyLong(),
+				any())).thenAnswer(invocation -> window(locations, Location::getVersion, invocation.getArgument(0),
+						invocation.getArgument(1), invocation.getArgument(2)));
+		when(tombstoneRepository.findByVersionGreaterThanAndVersionLessThanEqualOrderByVersionAsc(anyLong(),
+				anyLong(), any())).thenAnswer(invocation -> window(tombstones, LocationTombstone::getVersion,
+						invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2)));
+		feed = new LocationChangeFeedImpl();
+		ReflectionTestUtils.setField(feed, "locationRepository", locationRepository);
+		ReflectionTestUtils.setField(feed, "tombstoneRepository", tombstoneRepository);
+		ReflectionTestUtils.setField(feed, "versions", versions);
+		ReflectionTestUtils.setField(feed, "MAX_PAGE_SIZE", 1000);
+
+		location(1, 3);
+		location(2, 7);
+		location(4, 8);
+		tombstone(3, 5);
+		tombstone(5, 6);
+		when(versions.stable()).thenReturn(8L);
+	}
+
+	@Test
+	void testMergesUpdatesAndDeletesInVersionOrder() {
+		LocationChanges changes = feed.getChangesSince(-1, 100);
+		assertEquals(Arrays.asList(3L, 5L, 6L, 7L, 8L), versions(changes));
+		LocationChange delete = changes.getChanges().get(1);
+		assertEquals(3, delete.getId());
+		assertTrue(delete.isDeleted());
+		assertNull(delete.getLocation());
+		assertEquals(2, changes.getChanges().get(3).getLocation().getId());
+		assertFalse(changes.isMore());
+		assertEquals(8, changes.getNext());
+	}
+
+	@Test
+	void testPagesThroughWithNext() {
+		List<Long> seen = new ArrayList<>();
+		long since = -1;
+		LocationChanges changes;
+		do {
+			changes = feed.getChangesSince(since, 2);
+			seen.addAll(versions(changes));
+			since = changes.getNext();
+		} while (changes.isMore());
+		assertEquals(Arrays.asList(3L, 5L, 6L, 7L, 8L), seen);
+		assertEquals(8, since);
+	}
+
+	@Test
+	void testStopsAtTheStableVersion() {
+		location(6, 9);
+		LocationChanges changes = feed.getChangesSince(6, 100);
+		assertEquals(Arrays.asList(7L, 8L), versions(changes));
+		assertEquals(8, changes.getNext());
+
+		when(versions.stable()).thenReturn(9L);
+		changes = feed.getChangesSince(changes.getNext(), 100);
+		assertEquals(Arrays.asList(9L), versions(changes));
+		assertEquals(9, changes.getNext());
+	}
+
+	@Test
+	void testSlowSubscriberDoesNotHoldUpTheOthers() throws Exception {
+		ReflectionTestUtils.setField(feed, "PUSH_WORKERS", 2);
+		feed.init();
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch slowStarted = new CountDownLatch(1);
+		AtomicInteger slowSends = new AtomicInteger();
+		feed.subscribe(new SseEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) {
+				slowSends.incrementAndGet();
+				slowStarted.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, -1);
+		CountDownLatch received = new CountDownLatch(5);
+		List<SseEmitter.SseEventBuilder> events = new CopyOnWriteArrayList<>();
+		feed.subscribe(new SseEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) {
+				events.add(builder);
+				received.countDown();
+			}
+		}, -1);
+		try {
+			feed.pushChanges();
+			assertTrue(received.await(5, TimeUnit.SECONDS));
+			assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+			// the slow one is still on its first change and is not queued again
+			feed.pushChanges();
+			assertEquals(1, slowSends.get());
+			assertEquals(5, events.size());
+		} finally {
+			release.countDown();
+			feed.shutdown();
+		}
+	}
+
+	private void location(int id, long version) {
+		Location location = new Location();
+		location.setId(id);
+		location.setVersion(version);
+		locations.add(location);
+	}
+
+	private void tombstone(int id, long version) {
+		LocationTombstone tombstone = new LocationTombstone();
+		tombstone.setId(id);
+		tombstone.setVersion(version);
+		tombstones.add(tombstone);
+	}
+
+	private static List<Long> versions(LocationChanges changes) {
+		return changes.getChanges().stream().map(LocationChange::getVersion).collect(Collectors.toList());
+	}
+
+	private static <T> List<T> window(List<T> rows, ToLongFunction<T> version, long since,
+			long upTo, Pageable pageable) {
+		return rows.stream().filter(row -> version.applyAsLong(row) > since && version.applyAsLong(row) <= upTo)
+				.sorted(Comparator.comparingLong(version)).limit(pageable.getPageSize())
+				.collect(Collectors.toList());
+	}
+}
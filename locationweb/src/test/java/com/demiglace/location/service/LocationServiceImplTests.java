@@ -0,0 +1,148 @@
+package com.demiglace.location.service;
+
+import static com.demiglace.location.LocationFixtures.location;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.demiglace.location.entities.Location;
+import com.demiglace.location.repos.LocationRepository;
+import com.demiglace.location.repos.LocationTombstoneRepository;
+import com.demiglace.location.util.EmailUtil;
+
+class LocationServiceImplTests {
+	private LocationRepository repository;
+	private EntityManager entityManager;
+	private LocationChangeListener listener;
+	private EmailUtil emailUtil;
+	private LocationServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(LocationRepository.class);
+		entityManager = mock(EntityManager.class);
+		listener = mock(LocationChangeListener.class);
+		emailUtil = mock(EmailUtil.class);
+		LocationVersions versions = mock(LocationVersions.class);
+		when(versions.next(anyInt())).thenReturn(7L);
+		when(repository.saveAndFlush(any(Location.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		service = new LocationServiceImpl();
+		ReflectionTestUtils.setField(service, "repository", repository);
+		ReflectionTestUtils.setField(service, "tombstoneRepository", mock(LocationTombstoneRepository.class));
+		ReflectionTestUtils.setField(service, "versions", versions);
+		ReflectionTestUtils.setField(service, "listeners", Collections.singletonList(listener));
+		ReflectionTestUtils.setField(service, "entityManager", entityManager);
+		ReflectionTestUtils.setField(service, "emailUtil", emailUtil);
+	}
+
+	@Test
+	void testListenersGetTheRowAsItWasBeforeTheUpdate() {
+		Location previous = location(1, "AUS");
+		when(repository.findById(1)).thenReturn(Optional.of(previous));
+		Location updated = service.updateLocation(location(1, "AUX"));
+
+		// detached before the save, so the save can't merge into it
+		InOrder order = inOrder(entityManager, repository);
+		order.verify(entityManager).detach(previous);
+		order.verify(repository).saveAndFlush(updated);
+		verify(listener).locationChanged(previous, updated);
+		assertEquals("AUS", previous.getCode());
+		assertEquals(7L, updated.getVersion());
+	}
+
+	@Test
+	void testNewLocationHasNoPrevious() {
+		when(repository.findById(2)).thenReturn(Optional.empty());
+		Location saved = service.saveLocation(location(2, "NYC"));
+		verify(listener).locationChanged(null, saved);
+		verify(entityManager, never()).detach(any());
+	}
+
+	@Test
+	void testDeleteReadsTheRowOnce() {
+		Location existing = location(3, "SFO");
+		when(repository.findById(3)).thenReturn(Optional.of(existing));
+		service.deleteLocation(location(3, "SFO"));
+		verify(repository, times(1)).findById(3);
+		verify(repository).delete(existing);
+		verify(repository, never()).deleteById(anyInt());
+		verify(listener).locationChanged(existing, null);
+	}
+
+	@Test
+	void testListenersHearOfAChangeOnlyOnceItIsCommitted() {
+		when(repository.findById(4)).thenReturn(Optional.empty());
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			Location saved = service.saveLocation(location(4, "LAX"));
+			verify(listener, never()).locationChanged(any(), any());
+			TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+			verify(listener).locationChanged(null, saved);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void testRolledBackChangeNeverReachesTheListeners() {
+		when(repository.findById(5)).thenReturn(Optional.empty());
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			service.saveLocation(location(5, "ORD"));
+			TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+					TransactionSynchronization.STATUS_ROLLED_BACK);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		verify(listener, never()).locationChanged(any(), any());
+	}
+
+	@Test
+	void testListVersionMovesOnlyOnceTheChangeIsCommitted() {
+		LocationListVersion listVersion = new LocationListVersion();
+		ReflectionTestUtils.setField(service, "listeners", Collections.singletonList(listVersion));
+		when(repository.findById(6)).thenReturn(Optional.empty());
+		long before = listVersion.get();
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			service.saveLocation(location(6, "SEA"));
+			// a page read now still shows the old rows, it must keep the old tag
+			assertEquals(before, listVersion.get());
+			TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+			assertEquals(before + 1, listVersion.get());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void testNotificationIsQueuedWithTheSave() {
+		when(repository.findById(7)).thenReturn(Optional.empty());
+		Location saved = service.saveLocation(location(7, "BOS"), "ops@example.com");
+		InOrder order = inOrder(repository, emailUtil);
+		order.verify(repository).saveAndFlush(saved);
+		order.verify(emailUtil).sendEmail("ops@example.com", "Location Saved", "Location Saved successfully: " + saved);
+
+		service.saveLocation(location(8, "DEN"), "");
+		verify(emailUtil, times(1)).sendEmail(any(), any(), any());
+	}
+}
@@ -0,0 +1,108 @@
+package com.demiglace.location.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.demiglace.location.repos.LocationRepository;
+
+class LocationTypeCounterImplTests {
+	private LocationRepository repository;
+	private LocationTypeCounterImpl counter;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(LocationRepository.class);
+		counter = new LocationTypeCounterImpl();
+		ReflectionTestUtils.setField(counter, "repository", repository);
+	}
+
+	@Test
+	void testCountsAreLoadedOnceAndThenMaintained() {
+		when(repository.findTypeAndTypeCount()).thenReturn(rows("URBAN", 2L, "RURAL", 1L));
+		assertEquals("{RURAL=1, URBAN=2}", counts());
+
+		counter.changed(null, "URBAN");
+		counter.changed("URBAN", "RURAL");
+		counter.changed("RURAL", "RURAL");
+		counter.changed("RURAL", null);
+		counter.changed(null, "COASTAL");
+		assertEquals("{COASTAL=1, RURAL=1, URBAN=2}", counts());
+		verify(repository, times(1)).findTypeAndTypeCount();
+	}
+
+	@Test
+	void testEmptyTypesAreLeftOutOfTheReport() {
+		when(repository.findTypeAndTypeCount()).thenReturn(rows("URBAN", 1L));
+		counter.reconcile();
+		counter.changed("URBAN", null);
+		assertEquals("{}", counts());
+	}
+
+	@Test
+	void testReconcileCorrectsDrift() {
+		when(repository.findTypeAndTypeCount()).thenReturn(rows("URBAN", 1L));
+		counter.reconcile();
+		// rows inserted behind LocationService's back
+		when(repository.findTypeAndTypeCount()).thenReturn(rows("URBAN", 5L));
+		counter.reconcile();
+		assertEquals("{URBAN=5}", counts());
+	}
+
+	@Test
+	void testReconcileKeepsCountsThatChangedWhileCounting() {
+		when(repository.findTypeAndTypeCount()).thenReturn(rows("URBAN", 1L));
+		counter.reconcile();
+		when(repository.findTypeAndTypeCount()).thenAnswer(invocation -> {
+			// a save lands after the query has read the table
+			counter.changed(null, "URBAN");
+			return rows("URBAN", 1L);
+		});
+		counter.reconcile();
+		assertEquals("{URBAN=2}", counts());
+	}
+
+	@Test
+	void testReconcileCorrectsDriftWhileLocationsKeepChanging() {
+		when(repository.findTypeAndTypeCount()).thenReturn(rows("URBAN", 1L));
+		counter.reconcile();
+		// rows inserted behind LocationService's back, and a save lands during every count
+		when(repository.findTypeAndTypeCount()).thenAnswer(invocation -> {
+			counter.changed(null, "RURAL");
+			return rows("URBAN", 5L);
+		});
+		counter.reconcile();
+		assertEquals("{RURAL=1, URBAN=5}", counts());
+
+		// after the swap changes go to the fresh counts only
+		counter.changed("URBAN", "RURAL");
+		assertEquals("{RURAL=2, URBAN=4}", counts());
+	}
+
+	private String counts() {
+		Map<String, Object> counts = new TreeMap<>();
+		for (Object[] row : counter.getTypeCounts()) {
+			counts.put((String) row[0], row[1]);
+		}
+		return counts.toString();
+	}
+
+	private static List<Object[]> rows(Object... typesAndCounts) {
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < typesAndCounts.length; i += 2) {
+			rows.add(new Object[] { typesAndCounts[i], typesAndCounts[i + 1] });
+		}
+		return rows;
+	}
+}
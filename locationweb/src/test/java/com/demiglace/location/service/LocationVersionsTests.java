@@ -0,0 +1,91 @@
+package com.demiglace.location.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.demiglace.location.repos.LocationRepository;
+import com.demiglace.location.repos.LocationTombstoneRepository;
+
+class LocationVersionsTests {
+	private LocationVersions versions;
+
+	@BeforeEach
+	void setUp() {
+		LocationRepository locationRepository = mock(LocationRepository.class);
+		LocationTombstoneRepository tombstoneRepository = mock(LocationTombstoneRepository.class);
+		when(locationRepository.findMaxVersion()).thenReturn(10L);
+		when(tombstoneRepository.findMaxVersion()).thenReturn(12L);
+		versions = new LocationVersions();
+		ReflectionTestUtils.setField(versions, "locationRepository", locationRepository);
+		ReflectionTestUtils.setField(versions, "tombstoneRepository", tombstoneRepository);
+		versions.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void testContinuesAfterTheHighestStoredVersion() {
+		assertEquals(12, versions.stable());
+		assertEquals(13, inTransaction(1).first);
+		assertEquals(14, inTransaction(5).first);
+		assertEquals(19, inTransaction(1).first);
+	}
+
+	@Test
+	void testStableStopsBelowTheOldestOpenTransaction() {
+		Transaction first = inTransaction(1);
+		Transaction second = inTransaction(3);
+		assertEquals(12, versions.stable());
+
+		// the later transaction commits first, its versions must not be read past the earlier one
+		second.complete();
+		assertEquals(12, versions.stable());
+		first.complete();
+		assertEquals(16, versions.stable());
+	}
+
+	@Test
+	void testNeedsATransaction() {
+		assertThrows(IllegalStateException.class, () -> versions.next(1));
+	}
+
+	private Transaction inTransaction(int count) {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			long first = versions.next(count);
+			return new Transaction(first, TransactionSynchronizationManager.getSynchronizations());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	private static class Transaction {
+		final long first;
+		final List<TransactionSynchronization> synchronizations;
+
+		Transaction(long first, List<TransactionSynchronization> synchronizations) {
+			this.first = first;
+			this.synchronizations = synchronizations;
+		}
+
+		void complete() {
+			synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package com.demiglace.location.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.demiglace.location.entities.OutboxEmail;
+import com.demiglace.location.repos.OutboxEmailRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+
+class EmailOutboxSenderTests {
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+	private OutboxEmailRepository repository;
+	private EmailOutboxSender outboxSender;
+	private final List<OutboxEmail> pending = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(OutboxEmailRepository.class);
+		when(repository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(eq(OutboxEmail.PENDING), any(Date.class),
+				any())).thenAnswer(invocation -> new ArrayList<>(pending));
+		JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+		mailSender.setHost("localhost");
+		mailSender.setPort(ServerSetupTest.SMTP.getPort());
+		outboxSender = new EmailOutboxSender();
+		ReflectionTestUtils.setField(outboxSender, "outboxRepository", repository);
+		ReflectionTestUtils.setField(outboxSender, "sender", mailSender);
+		ReflectionTestUtils.setField(outboxSender, "BATCH_SIZE", 10);
+		ReflectionTestUtils.setField(outboxSender, "MAX_ATTEMPTS", 3);
+		ReflectionTestUtils.setField(outboxSender, "RETRY_DELAY_MILLIS", 60000L);
+	}
+
+	@Test
+	void testBatchIsSentAndMarked() throws Exception {
+		pending.addAll(Arrays.asList(email("a@example.com"), email("b@example.com"), email("c@example.com")));
+		assertEquals(3, outboxSender.sendBatch());
+		assertEquals(3, smtp.getReceivedMessages().length);
+		assertEquals("Location Saved", smtp.getReceivedMessages()[0].getSubject());
+		for (OutboxEmail email : pending) {
+			assertEquals(OutboxEmail.SENT, email.getStatus());
+			assertNotNull(email.getSentAt());
+		}
+	}
+
+	@Test
+	void testUnreachableServerRetriesLaterThenDeadLetters() {
+		smtp.stop();
+		OutboxEmail email = email("a@example.com");
+		pending.add(email);
+		assertEquals(0, outboxSender.sendBatch());
+		assertEquals(OutboxEmail.PENDING, email.getStatus());
+		assertEquals(1, email.getAttempts());
+		assertTrue(email.getNextAttemptAt().getTime() > System.currentTimeMillis() + 50000);
+		assertNotNull(email.getLastError());
+
+		outboxSender.sendBatch();
+		outboxSender.sendBatch();
+		assertEquals(OutboxEmail.DEAD, email.getStatus());
+		assertEquals(3, email.getAttempts());
+	}
+
+	@Test
+	void testBadAddressIsDeadLetteredWithoutHoldingUpTheRest() {
+		OutboxEmail bad = email("not an address");
+		OutboxEmail good = email("a@example.com");
+		pending.addAll(Arrays.asList(bad, good));
+		assertEquals(1, outboxSender.sendBatch());
+		assertEquals(OutboxEmail.DEAD, bad.getStatus());
+		assertEquals(OutboxEmail.SENT, good.getStatus());
+		assertNull(good.getLastError());
+	}
+
+	private static OutboxEmail email(String to) {
+		OutboxEmail email = new OutboxEmail();
+		email.setToAddress(to);
+		email.setSubject("Location Saved");
+		email.setBody("Location Saved successfully");
+		email.setStatus(OutboxEmail.PENDING);
+		email.setNextAttemptAt(new Date());
+		return email;
+	}
+}
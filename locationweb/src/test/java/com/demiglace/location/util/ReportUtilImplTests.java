@@ -0,0 +1,153 @@
+package com.demiglace.location.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+
+class ReportUtilImplTests {
+	private ReportUtilImpl reportUtil;
+
+	@BeforeEach
+	void setUp() {
+		reportUtil = new ReportUtilImpl();
+		ReflectionTestUtils.setField(reportUtil, "WORKERS", 2);
+		ReflectionTestUtils.setField(reportUtil, "QUEUE_CAPACITY", 100);
+		ReflectionTestUtils.setField(reportUtil, "CACHE_SIZE", 2);
+		reportUtil.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		reportUtil.shutdown();
+	}
+
+	@Test
+	void testHashIgnoresRowOrder() {
+		assertEquals(reportUtil.datasetHash(data("URBAN", 2L, "RURAL", 1L)),
+				reportUtil.datasetHash(data("RURAL", 1L, "URBAN", 2L)));
+		assertNotEquals(reportUtil.datasetHash(data("URBAN", 2L, "RURAL", 1L)),
+				reportUtil.datasetHash(data("URBAN", 3L, "RURAL", 1L)));
+	}
+
+	@Test
+	void testChartIsRenderedOncePerDataSet() throws Exception {
+		List<CompletableFuture<byte[]>> charts = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			charts.add(reportUtil.generatePieChart(data("URBAN", 2L, "RURAL", 1L)));
+		}
+		byte[] chart = charts.get(0).get();
+		for (CompletableFuture<byte[]> other : charts) {
+			assertSame(chart, other.get());
+		}
+		assertEquals(1, reportUtil.getRenderCount());
+		assertNotNull(ImageIO.read(new ByteArrayInputStream(chart)));
+
+		reportUtil.generatePieChart(data("URBAN", 3L, "RURAL", 1L)).get();
+		assertEquals(2, reportUtil.getRenderCount());
+	}
+
+	@Test
+	void testLeastRecentlyUsedChartIsEvicted() throws Exception {
+		reportUtil.generatePieChart(data("URBAN", 1L)).get();
+		reportUtil.generatePieChart(data("URBAN", 2L)).get();
+		reportUtil.generatePieChart(data("URBAN", 1L)).get();
+		reportUtil.generatePieChart(data("URBAN", 3L)).get();
+		assertEquals(3, reportUtil.getRenderCount());
+		reportUtil.generatePieChart(data("URBAN", 2L)).get();
+		assertEquals(4, reportUtil.getRenderCount());
+	}
+
+	@Test
+	void testFormatsRenderFromTheSameData() throws Exception {
+		List<Object[]> data = data("URBAN", 3L, "RURAL", 1L);
+		assertNotNull(ImageIO.read(new ByteArrayInputStream(reportUtil.generateReport(data, ReportUtil.BAR).get())));
+		assertEquals("type,locations,percent\r\nRURAL,1,25.0\r\nURBAN,3,75.0\r\nTOTAL,4,100.0\r\n",
+				new String(reportUtil.generateReport(data, ReportUtil.CSV).get(), StandardCharsets.UTF_8));
+
+		PdfReader pdf = new PdfReader(reportUtil.generateReport(data, ReportUtil.PDF).get());
+		String text = PdfTextExtractor.getTextFromPage(pdf, 1);
+		assertTrue(text.contains("Total locations: 4"), text);
+		assertTrue(text.contains("URBAN"), text);
+		assertTrue(text.contains("75.0"), text);
+	}
+
+	@Test
+	void testEachFormatIsRenderedOnceAndThePdfReusesTheBarChart() throws Exception {
+		ReflectionTestUtils.setField(reportUtil, "CACHE_SIZE", 8);
+		List<Object[]> data = data("URBAN", 2L, "RURAL", 1L);
+		Map<String, CompletableFuture<byte[]>> reports = reportUtil.generateReports(data,
+				Arrays.asList(ReportUtil.PDF, ReportUtil.BAR, ReportUtil.CSV));
+		CompletableFuture.allOf(reports.values().toArray(new CompletableFuture[0])).get();
+		assertEquals(Arrays.asList(ReportUtil.PDF, ReportUtil.BAR, ReportUtil.CSV), new ArrayList<>(reports.keySet()));
+		assertEquals(3, reportUtil.getRenderCount());
+
+		assertSame(reports.get(ReportUtil.PDF), reportUtil.generateReport(data("RURAL", 1L, "URBAN", 2L), ReportUtil.PDF));
+		reportUtil.generatePieChart(data).get();
+		assertEquals(4, reportUtil.getRenderCount());
+	}
+
+	@Test
+	void testTurnedAwayReportIsNotCached() throws Exception {
+		reportUtil.shutdown();
+		ReflectionTestUtils.setField(reportUtil, "WORKERS", 1);
+		ReflectionTestUtils.setField(reportUtil, "QUEUE_CAPACITY", 1);
+		reportUtil.init();
+		ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(reportUtil, "executor");
+		CountDownLatch release = new CountDownLatch(1);
+		// one running and one queued, the report workers are full
+		for (int i = 0; i < 2; i++) {
+			executor.execute(() -> {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		List<Object[]> data = data("URBAN", 2L, "RURAL", 1L);
+		ExecutionException rejected = assertThrows(ExecutionException.class,
+				() -> reportUtil.generateReport(data, ReportUtil.PDF).get());
+		assertTrue(rejected.getCause() instanceof RejectedExecutionException, rejected.getCause().toString());
+
+		release.countDown();
+		while (executor.getCompletedTaskCount() < 2) {
+			Thread.sleep(10);
+		}
+		PdfReader pdf = new PdfReader(reportUtil.generateReport(data, ReportUtil.PDF).get());
+		assertTrue(PdfTextExtractor.getTextFromPage(pdf, 1).contains("Total locations: 3"));
+		assertEquals(2, reportUtil.getRenderCount());
+	}
+
+	private static List<Object[]> data(Object... typesAndCounts) {
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < typesAndCounts.length; i += 2) {
+			rows.add(Arrays.copyOfRange(typesAndCounts, i, i + 2));
+		}
+		return rows;
+	}
+}
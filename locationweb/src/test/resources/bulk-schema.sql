@@ -0,0 +1,15 @@
+CREATE TABLE location (
+	id INT PRIMARY KEY,
+	code VARCHAR(20),
+	name VARCHAR(50),
+	type VARCHAR(10),
+	latitude DOUBLE,
+	longitude DOUBLE,
+	version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE location_tombstone (
+	id INT PRIMARY KEY,
+	version BIGINT NOT NULL,
+	deleted_at TIMESTAMP
+);
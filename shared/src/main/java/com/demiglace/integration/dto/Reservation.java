@@ -1,6 +1,9 @@
 package com.demiglace.integration.dto;
 
-
+/**
+ * The /reservations wire format, JSON or CBOR. Shared by flightreservation, which maps its entities onto it,
+ * and flightcheckin, which reads it, so a field renamed on one side no longer compiles on the other.
+ */
 public class Reservation {
 	private Long id;
 	private Boolean checkedIn;
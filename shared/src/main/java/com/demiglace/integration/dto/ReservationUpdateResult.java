@@ -0,0 +1,49 @@
+package com.demiglace.integration.dto;
+
+// one entry of the /reservations/batch response, in the order of the requests
+public class ReservationUpdateResult {
+	public static final String UPDATED = "UPDATED";
+	public static final String NOT_FOUND = "NOT_FOUND";
+
+	private Long id;
+	private String status;
+	private Reservation reservation;
+
+	public ReservationUpdateResult() {
+	}
+
+	public ReservationUpdateResult(Long id, String status, Reservation reservation) {
+		this.id = id;
+		this.status = status;
+		this.reservation = reservation;
+	}
+
+	@Override
+	public String toString() {
+		return "ReservationUpdateResult [id=" + id + ", status=" + status + "]";
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public Reservation getReservation() {
+		return reservation;
+	}
+
+	public void setReservation(Reservation reservation) {
+		this.reservation = reservation;
+	}
+}
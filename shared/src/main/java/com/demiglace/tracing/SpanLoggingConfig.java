@@ -0,0 +1,32 @@
+package com.demiglace.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+
+/**
+ * Shared by flightreservation and flightcheckin, both add shared/src/main/java to their sources and import it.
+ */
+@Configuration
+public class SpanLoggingConfig {
+	private static final Logger SPANS = LoggerFactory.getLogger("tracing.spans");
+
+	// sampled spans as zipkin json lines in the log, for when no collector is running
+	@Bean
+	@ConditionalOnProperty(name = "com.demiglace.tracing.logspans", havingValue = "true")
+	public SpanHandler spanLogger() {
+		return new SpanHandler() {
+			@Override
+			public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+				SPANS.info("{}", span);
+				return true;
+			}
+		};
+	}
+}